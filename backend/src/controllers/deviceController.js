@@ -1,4 +1,17 @@
 import Device from "../models/Device.js";
+import Application from "../models/Application.js";
+
+// ודא שקיים מיקום ותחומי עניין – או שים ברירת מחדל
+const toSafeUserInfo = (userInfo) => ({
+  userId: userInfo.userId || "",
+  gender: userInfo.gender || "",
+  age: userInfo.age || null,
+  interests: userInfo.interests || [],
+  location: {
+    lat: userInfo.lat || 0,
+    lng: userInfo.lng || 0,
+  },
+});
 
 export const registerDeviceToken = async (req, res) => {
   console.log("📱 Registering device token...");
@@ -21,17 +34,14 @@ export const registerDeviceToken = async (req, res) => {
       });
     }
 
-    // ודא שקיים מיקום ותחומי עניין – או שים ברירת מחדל
-    const safeUserInfo = {
-      userId: userInfo.userId || "",
-      gender: userInfo.gender || "",
-      age: userInfo.age || null,
-      interests: userInfo.interests || [],
-      location: {
-        lat: userInfo.lat || 0,
-        lng: userInfo.lng || 0,
-      },
-    };
+    // ה-SDK שומר clientId במטמון – דחייה כאן גורמת לו לבצע bootstrap מחדש
+    const appMatches = await Application.exists({ _id: appId, clientId });
+    if (!appMatches) {
+      console.log("❌ clientId does not match application!");
+      return res.status(409).json({ message: "clientId does not match appId" });
+    }
+
+    const safeUserInfo = toSafeUserInfo(userInfo);
 
     const device = await Device.findOneAndUpdate(
       { token, appId, clientId },
@@ -48,6 +58,46 @@ export const registerDeviceToken = async (req, res) => {
   }
 };
 
+// רישום מכשיר בבקשה אחת – השרת מאתר את ה-clientId לפי appId ומחזיר אותו ל-SDK
+export const bootstrapDevice = async (req, res) => {
+  const { token, appId, userInfo } = req.body;
+
+  if (!token || !appId || !userInfo) {
+    return res.status(400).json({
+      message: "Missing fields: token, appId and userInfo are required",
+    });
+  }
+
+  try {
+    const app = await Application.findById(appId).select("clientId");
+    if (!app) {
+      return res.status(404).json({ message: "Application not found" });
+    }
+
+    await Device.findOneAndUpdate(
+      { token, appId, clientId: app.clientId },
+      {
+        token,
+        appId,
+        clientId: app.clientId,
+        userInfo: toSafeUserInfo(userInfo),
+      },
+      { upsert: true, new: true }
+    );
+
+    res.status(201).json({
+      message: "Device registered",
+      clientId: app.clientId,
+      appId: app._id,
+    });
+  } catch (err) {
+    res.status(500).json({
+      message: "Failed to register device",
+      error: err.message,
+    });
+  }
+};
+
 export const getDevicesByAppId = async (req, res) => {
   const { appId } = req.params;
 
@@ -158,7 +208,7 @@ export const updateDeviceInfo = async (req, res) => {
   try {
     const updated = await Device.findOneAndUpdate(
       { token },
-      { userInfo },
+      { userInfo, $inc: { profileVersion: 1 } },
       { new: true }
     );
 
@@ -166,7 +216,76 @@ export const updateDeviceInfo = async (req, res) => {
       return res.status(404).json({ message: "Device not found" });
     }
 
-    res.status(200).json({ message: "Device updated", device: updated });
+    res.status(200).json({
+      message: "Device updated",
+      device: updated,
+      version: updated.profileVersion,
+    });
+  } catch (err) {
+    res.status(500).json({ message: "Failed to update", error: err.message });
+  }
+};
+
+// If-Match: "3" או W/"3" → 3
+const parseIfMatch = (header) => {
+  if (!header) return null;
+  const version = Number(header.replace(/^W\//, "").replace(/"/g, ""));
+  return Number.isFinite(version) ? version : null;
+};
+
+// עדכון חלקי של הפרופיל – רק השדות שהשתנו, מותנה בגרסה שה-SDK מכיר
+export const patchDeviceProfile = async (req, res) => {
+  const { token, userId, gender, age, lat, lng, addInterests, removeInterests } =
+    req.body;
+  const expectedVersion = parseIfMatch(req.get("If-Match"));
+
+  if (!token) {
+    return res.status(400).json({ message: "Missing token" });
+  }
+
+  try {
+    const device = await Device.findOne({ token });
+    if (!device) {
+      return res.status(404).json({ message: "Device not found" });
+    }
+
+    const currentVersion = device.profileVersion || 0;
+    if (expectedVersion !== null && expectedVersion !== currentVersion) {
+      return res
+        .status(412)
+        .json({ message: "Profile version mismatch", version: currentVersion });
+    }
+
+    const update = {};
+    if (userId !== undefined) update["userInfo.userId"] = userId;
+    if (gender !== undefined) update["userInfo.gender"] = gender;
+    if (age !== undefined) update["userInfo.age"] = age;
+    if (lat !== undefined) update["userInfo.location.lat"] = lat;
+    if (lng !== undefined) update["userInfo.location.lng"] = lng;
+
+    if (addInterests?.length || removeInterests?.length) {
+      const interests = new Set(device.userInfo?.interests || []);
+      (removeInterests || []).forEach((i) => interests.delete(i));
+      (addInterests || []).forEach((i) => interests.add(i));
+      update["userInfo.interests"] = [...interests];
+    }
+
+    // התנאי על הגרסה מונע דריסה של עדכון מקביל
+    const updated = await Device.findOneAndUpdate(
+      { _id: device._id, profileVersion: device.profileVersion },
+      { $set: update, $inc: { profileVersion: 1 } },
+      { new: true }
+    );
+
+    if (!updated) {
+      const latest = await Device.findById(device._id).select("profileVersion");
+      return res.status(412).json({
+        message: "Profile version mismatch",
+        version: latest?.profileVersion || 0,
+      });
+    }
+
+    res.status(200).json({ version: updated.profileVersion });
   } catch (err) {
     res.status(500).json({ message: "Failed to update", error: err.message });
   }
@@ -209,6 +328,53 @@ export const updateDeviceLocation = async (req, res) => {
   }
 };
 
+// עדכון מיקום מרוכז – ה-SDK שולח כמה נקודות בבקשה אחת, נשמרת הנקודה העדכנית ביותר
+export const updateDeviceLocationBatch = async (req, res) => {
+  const { token, points } = req.body;
+
+  if (!token || !Array.isArray(points) || points.length === 0) {
+    return res.status(400).json({ message: "Missing token or points" });
+  }
+
+  const latest = points.reduce((best, point) =>
+    (point.timestamp || 0) > (best.timestamp || 0) ? point : best
+  );
+
+  if (latest.lat === undefined || latest.lng === undefined) {
+    return res.status(400).json({ message: "Points must include lat and lng" });
+  }
+
+  try {
+    const updated = await Device.findOneAndUpdate(
+      { token },
+      {
+        "userInfo.location.lat": latest.lat,
+        "userInfo.location.lng": latest.lng,
+        "userInfo.lastLocationUpdate": latest.timestamp
+          ? new Date(latest.timestamp)
+          : new Date(),
+        updatedAt: new Date(),
+      },
+      { new: true }
+    );
+
+    if (!updated) {
+      return res.status(404).json({ message: "Device not found" });
+    }
+
+    res.status(200).json({
+      message: "Location updated successfully",
+      location: { lat: latest.lat, lng: latest.lng },
+      pointsReceived: points.length,
+    });
+  } catch (err) {
+    console.error("❌ Error updating device location batch:", err);
+    res
+      .status(500)
+      .json({ message: "Failed to update location", error: err.message });
+  }
+};
+
 export const unregisterDevice = async (req, res) => {
   const { token } = req.params;
 
@@ -1,7 +1,11 @@
+import mongoose from "mongoose";
 import { sendNotificationForClient } from "../config/firebaseAppManager.js";
 import Device from "../models/Device.js";
 import ScheduledNotification from "../models/ScheduledNotification.js";
 import NotificationLog from "../models/NotificationLog.js";
+import NotificationTombstone, {
+  TOMBSTONE_TTL_DAYS,
+} from "../models/NotificationTombstone.js";
 
 // helper לחישוב מרחק בין 2 נקודות גאוגרפיות (בק"מ)
 function haversineDistance(lat1, lng1, lat2, lng2) {
@@ -21,7 +25,8 @@ function haversineDistance(lat1, lng1, lat2, lng2) {
 export const sendNotification = async (req, res) => {
   const startTime = Date.now();
   console.log("📢 [TIMING] Starting notification send at:", new Date().toISOString());
-  const { title, body, appId, filters = {} } = req.body;
+  const { title, body, appId, filters = {}, collapseKey, imageUrl, iconUrl } =
+    req.body;
 
   console.log("title", title);
   console.log("body", body);
@@ -32,6 +37,13 @@ export const sendNotification = async (req, res) => {
     return res.status(400).json({ message: "Missing required fields" });
   }
 
+  // תמונות מוצגות רק מכתובות https - ה-SDK מוריד אותן בזמן קבלת ההודעה
+  for (const url of [imageUrl, iconUrl]) {
+    if (url && !/^https:\/\/\S+$/.test(url)) {
+      return res.status(400).json({ message: "Image URLs must use https" });
+    }
+  }
+
   try {
     let devices = await Device.find({ appId });
 
@@ -77,16 +89,21 @@ export const sendNotification = async (req, res) => {
     let totalFailureCount = 0;
     const allLogs = [];
 
+    // מזהה קמפיין אחד לכל ההודעות של השליחה - ה-SDK משתמש בו לסינון כפילויות
+    const campaignId = new mongoose.Types.ObjectId().toString();
+
     // שליחה לכל client בנפרד
     for (const [clientId, clientDevices] of Object.entries(devicesByClient)) {
       try {
         const tokens = clientDevices.map((d) => d.token);
         const message = {
-          notification: { title, body },
+          notification: { title, body, ...(imageUrl && { imageUrl }) },
           tokens,
           android: {
             priority: "high",
             ttl: 0, // No caching - deliver immediately or not at all
+            // הודעות עם אותו collapseKey מחליפות זו את זו (גם ב-FCM וגם במכשיר)
+            ...(collapseKey && { collapseKey }),
             notification: {
               priority: "high",
               default_sound: true,
@@ -94,10 +111,13 @@ export const sendNotification = async (req, res) => {
               default_light_settings: true,
               channel_id: "push_notification_channel",
               notification_priority: 2, // PRIORITY_HIGH
+              ...(collapseKey && { tag: collapseKey }),
             },
             data: {
               immediate: "true",
               timestamp: Date.now().toString(),
+              campaignId,
+              ...(iconUrl && { iconUrl }),
             },
           },
           apns: {
@@ -143,6 +163,7 @@ export const sendNotification = async (req, res) => {
           body,
           type: "broadcast",
           filters: Object.keys(filters).length > 0 ? filters : null,
+          campaignId,
         }));
         allLogs.push(...logs);
       } catch (error) {
@@ -276,6 +297,9 @@ export const sendToSpecificTokens = async (req, res) => {
     let totalFailureCount = 0;
     const allLogs = [];
 
+    // מזהה קמפיין אחד לכל ההודעות של השליחה - ה-SDK משתמש בו לסינון כפילויות
+    const campaignId = new mongoose.Types.ObjectId().toString();
+
     // שליחה לכל client בנפרד
     for (const [clientId, clientDevices] of Object.entries(devicesByClient)) {
       try {
@@ -283,6 +307,7 @@ export const sendToSpecificTokens = async (req, res) => {
         const message = {
           notification: { title, body },
           tokens: clientTokens,
+          data: { campaignId },
           android: {
             priority: "high",
             notification: {
@@ -324,6 +349,7 @@ export const sendToSpecificTokens = async (req, res) => {
           title,
           body,
           type: "individual",
+          campaignId,
         }));
         allLogs.push(...logs);
       } catch (error) {
@@ -408,6 +434,158 @@ export const getNotificationHistoryByToken = async (req, res) => {
   }
 };
 
+// 📄 היסטוריה לפי token בעמודים – cursor מבוסס sentAt + _id (משמש את ה־SDK)
+const MAX_HISTORY_PAGE_SIZE = 100;
+
+const encodeHistoryCursor = (log) =>
+  Buffer.from(`${log.sentAt.getTime()}_${log._id}`).toString("base64url");
+
+const decodeHistoryCursor = (cursor) => {
+  const [sentAt, id] = Buffer.from(cursor, "base64url").toString().split("_");
+  if (!sentAt || !id || !mongoose.isValidObjectId(id)) return null;
+  return { sentAt: new Date(Number(sentAt)), id };
+};
+
+export const getNotificationHistoryPageByToken = async (req, res) => {
+  const { token } = req.params;
+  const { cursor } = req.query;
+  const limit = Math.min(
+    Math.max(parseInt(req.query.limit, 10) || 20, 1),
+    MAX_HISTORY_PAGE_SIZE
+  );
+
+  const query = { token };
+  if (cursor) {
+    const position = decodeHistoryCursor(cursor);
+    if (!position) {
+      return res.status(400).json({ message: "Invalid cursor" });
+    }
+    query.$or = [
+      { sentAt: { $lt: position.sentAt } },
+      { sentAt: position.sentAt, _id: { $lt: position.id } },
+    ];
+  }
+
+  try {
+    // מביאים רשומה אחת נוספת כדי לדעת אם יש עמוד הבא
+    const logs = await NotificationLog.find(query)
+      .sort({ sentAt: -1, _id: -1 })
+      .limit(limit + 1);
+
+    const hasMore = logs.length > limit;
+    const items = hasMore ? logs.slice(0, limit) : logs;
+
+    res.status(200).json({
+      items,
+      nextCursor: hasMore ? encodeHistoryCursor(items[items.length - 1]) : null,
+    });
+  } catch (err) {
+    console.error("❌ Error fetching notification history page:", err);
+    res.status(500).json({
+      message: "Failed to fetch notification history",
+      error: err.message,
+    });
+  }
+};
+
+// 🔄 סנכרון מצטבר של היסטוריה לפי token – מחזיר רק מה שנוצר או נמחק מאז ה-cursor (משמש את ה־SDK)
+const MAX_SYNC_BATCH_SIZE = 500;
+// כתיבות שעדיין לא הושלמו לא ייפלו בין שני סנכרונים - החלון נסגר מעט לפני "עכשיו"
+const SYNC_LAG_MS = 5000;
+
+const encodeSyncCursor = (time, id) =>
+  Buffer.from(`${time.getTime()}_${id || ""}`).toString("base64url");
+
+const decodeSyncCursor = (cursor) => {
+  const [time, id] = Buffer.from(cursor, "base64url").toString().split("_");
+  if (!time || Number.isNaN(Number(time))) return null;
+  if (id && !mongoose.isValidObjectId(id)) return null;
+  return { time: new Date(Number(time)), id: id || null };
+};
+
+export const syncNotificationHistoryByToken = async (req, res) => {
+  const { token } = req.params;
+  const { since } = req.query;
+  const limit = Math.min(
+    Math.max(parseInt(req.query.limit, 10) || 200, 1),
+    MAX_SYNC_BATCH_SIZE
+  );
+
+  let position = { time: new Date(0), id: null };
+  let reset = !since;
+  if (since) {
+    const decoded = decodeSyncCursor(since);
+    if (!decoded) {
+      return res.status(400).json({ message: "Invalid cursor" });
+    }
+    // מחיקות ישנות מתקופת השמירה כבר לא קיימות - המכשיר חייב להתחיל מחדש
+    const tombstonesKeptSince = new Date(
+      Date.now() - TOMBSTONE_TTL_DAYS * 24 * 60 * 60 * 1000
+    );
+    if (decoded.time < tombstonesKeptSince) {
+      reset = true;
+    } else {
+      position = decoded;
+    }
+  }
+
+  const upTo = new Date(Date.now() - SYNC_LAG_MS);
+  const query = { token, createdAt: { $lt: upTo } };
+  query.$or = position.id
+    ? [
+        { createdAt: { $gt: position.time } },
+        { createdAt: position.time, _id: { $gt: position.id } },
+      ]
+    : [{ createdAt: { $gte: position.time } }];
+
+  try {
+    // מביאים רשומה אחת נוספת כדי לדעת אם יש המשך
+    const logs = await NotificationLog.find(query)
+      .sort({ createdAt: 1, _id: 1 })
+      .limit(limit + 1)
+      .lean();
+
+    const hasMore = logs.length > limit;
+    const items = hasMore ? logs.slice(0, limit) : logs;
+    const last = items[items.length - 1];
+    // המחיקות מוחזרות עבור אותו חלון זמן שהרשומות מכסות
+    const windowEnd = hasMore ? last.createdAt : upTo;
+
+    const tombstones = reset
+      ? []
+      : await NotificationTombstone.find({
+          token,
+          deletedAt: { $gte: position.time, $lt: windowEnd },
+        })
+          .select({ logId: 1 })
+          .lean();
+
+    // הסדר חשוב: ה-SDK קורא את התשובה בזרימה ומיישם כל שדה כשהוא מגיע
+    res.status(200).json({
+      reset,
+      items: items.map((log) => ({
+        _id: log._id,
+        title: log.title,
+        body: log.body,
+        type: log.type,
+        sentAt: log.sentAt,
+        campaignId: log.campaignId,
+      })),
+      deleted: tombstones.map((tombstone) => tombstone.logId),
+      cursor: hasMore
+        ? encodeSyncCursor(last.createdAt, last._id)
+        : encodeSyncCursor(upTo),
+      hasMore,
+    });
+  } catch (err) {
+    console.error("❌ Error syncing notification history:", err);
+    res.status(500).json({
+      message: "Failed to sync notification history",
+      error: err.message,
+    });
+  }
+};
+
 // ❌ מחיקת התראה לפי ID (משמש את ה־SDK)
 export const deleteNotificationById = async (req, res) => {
   console.log("❌ Deleting notification...");
@@ -420,6 +598,12 @@ export const deleteNotificationById = async (req, res) => {
       return res.status(404).json({ message: "Notification not found" });
     }
 
+    // נשמר כדי שהמחיקה תגיע גם לשאר העותקים המקומיים בסנכרון הבא
+    await NotificationTombstone.create({
+      token: deleted.token,
+      logId: deleted._id,
+    });
+
     res.status(200).json({ message: "Notification deleted" });
   } catch (err) {
     console.error("❌ Error deleting notification:", err);
@@ -561,6 +745,9 @@ export const sendNotificationByLocation = async (req, res) => {
     let totalFailureCount = 0;
     const allLogs = [];
 
+    // מזהה קמפיין אחד לכל ההודעות של השליחה - ה-SDK משתמש בו לסינון כפילויות
+    const campaignId = new mongoose.Types.ObjectId().toString();
+
     // שליחה לכל client בנפרד
     for (const [clientId, clientDevices] of Object.entries(devicesByClient)) {
       try {
@@ -568,6 +755,7 @@ export const sendNotificationByLocation = async (req, res) => {
         const message = {
           notification: { title, body },
           tokens,
+          data: { campaignId },
           android: {
             priority: "high",
             notification: {
@@ -610,6 +798,7 @@ export const sendNotificationByLocation = async (req, res) => {
           body,
           type: "location-based",
           filters: { location: bounds },
+          campaignId,
         }));
         allLogs.push(...logs);
       } catch (error) {
@@ -1,7 +1,69 @@
 import NotificationLog from "../models/NotificationLog.js";
 import Device from "../models/Device.js";
+import LatencyStats from "../models/LatencyStats.js";
+import CampaignReceipts from "../models/CampaignReceipts.js";
 import mongoose from "mongoose";
 
+// חלוקת הבאקטים של היסטוגרמת ההשהיות - חייבת להתאים ל-LatencyHistogram ב-SDK
+const SUB_BUCKETS = 16;
+const LATENCY_BUCKET_COUNT = 336;
+const LATENCY_DAYS = 7;
+
+const RECEIPT_EVENTS = ["received", "displayed", "opened", "dismissed"];
+const MAX_RECEIPTS_PER_BATCH = 1000;
+
+const latencyBucketValue = (bucket) => {
+  if (bucket < SUB_BUCKETS) return bucket;
+  const shift = Math.floor(bucket / SUB_BUCKETS) - 1;
+  const top = SUB_BUCKETS + (bucket % SUB_BUCKETS);
+  return top * 2 ** shift + Math.floor(2 ** shift / 2);
+};
+
+// מחשב אחוזונים מהיסטוגרמות יומיות שמוזגו
+const summarizeLatency = (docs) => {
+  const counts = new Array(LATENCY_BUCKET_COUNT).fill(0);
+  let total = 0;
+  for (const doc of docs) {
+    for (const [bucket, count] of doc.buckets) {
+      counts[Number(bucket)] += count;
+      total += count;
+    }
+  }
+
+  const percentile = (p) => {
+    if (total === 0) return null;
+    const target = Math.max(1, Math.ceil((p / 100) * total));
+    let seen = 0;
+    for (let i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= target) return latencyBucketValue(i);
+    }
+    return null;
+  };
+
+  return {
+    count: total,
+    p50: percentile(50),
+    p95: percentile(95),
+    p99: percentile(99),
+  };
+};
+
+const getLatencySummary = async (appId, days) => {
+  const since = new Date(Date.now() - (days - 1) * 24 * 60 * 60 * 1000)
+    .toISOString()
+    .slice(0, 10);
+  const docs = await LatencyStats.find({
+    appId: new mongoose.Types.ObjectId(appId),
+    day: { $gte: since },
+  });
+  return {
+    days,
+    delivery: summarizeLatency(docs.filter((d) => d.kind === "delivery")),
+    display: summarizeLatency(docs.filter((d) => d.kind === "display")),
+  };
+};
+
 export const getOverviewStats = async (req, res) => {
   try {
     const { appId } = req.params;
@@ -205,6 +267,29 @@ export const getOverviewStats = async (req, res) => {
     ]);
 
     // Days of week mapping
+    // 15. השהיות מסירה ותצוגה שנמדדו במכשירים
+    const latency = await getLatencySummary(appId, LATENCY_DAYS);
+
+    // 16. אישורי קבלה, תצוגה, פתיחה והסרה שדווחו מהמכשירים
+    const receiptsAgg = await CampaignReceipts.aggregate([
+      { $match: { appId: new mongoose.Types.ObjectId(appId) } },
+      {
+        $group: {
+          _id: null,
+          received: { $sum: "$received" },
+          displayed: { $sum: "$displayed" },
+          opened: { $sum: "$opened" },
+          dismissed: { $sum: "$dismissed" },
+        },
+      },
+    ]);
+    const { _id, ...receipts } = receiptsAgg[0] || {
+      received: 0,
+      displayed: 0,
+      opened: 0,
+      dismissed: 0,
+    };
+
     const dayNames = [
       "Sunday",
       "Monday",
@@ -264,6 +349,9 @@ export const getOverviewStats = async (req, res) => {
         day: dayNames[h._id.dayOfWeek - 1] || "Unknown",
         count: h.count,
       })),
+      deliveryLatency: latency.delivery,
+      displayLatency: latency.display,
+      receipts,
     });
   } catch (err) {
     console.error("Error getting overview stats:", err);
@@ -331,3 +419,122 @@ export const getPerUserStats = async (req, res) => {
     res.status(500).json({ message: "Failed to load per-user stats" });
   }
 };
+
+// קליטת אצוות השהיות מה-SDK: { token, appId, delivery: [[bucket, count]], display: [[bucket, count]] }
+export const uploadLatencyStats = async (req, res) => {
+  const { token, appId, delivery, display } = req.body;
+
+  if (!token || !mongoose.Types.ObjectId.isValid(appId)) {
+    return res.status(400).json({ message: "Missing token or invalid appId" });
+  }
+
+  try {
+    const device = await Device.exists({ token, appId });
+    if (!device) {
+      return res.status(404).json({ message: "Device not found" });
+    }
+
+    const day = new Date().toISOString().slice(0, 10);
+    const operations = [];
+    for (const [kind, pairs] of [
+      ["delivery", delivery],
+      ["display", display],
+    ]) {
+      if (!Array.isArray(pairs) || pairs.length === 0) continue;
+
+      const inc = {};
+      let count = 0;
+      for (const pair of pairs) {
+        const [bucket, n] = Array.isArray(pair) ? pair : [];
+        if (
+          !Number.isInteger(bucket) ||
+          bucket < 0 ||
+          bucket >= LATENCY_BUCKET_COUNT ||
+          !Number.isInteger(n) ||
+          n <= 0
+        ) {
+          return res.status(400).json({ message: "Invalid histogram" });
+        }
+        inc[`buckets.${bucket}`] = (inc[`buckets.${bucket}`] || 0) + n;
+        count += n;
+      }
+      inc.count = count;
+
+      operations.push({
+        updateOne: {
+          filter: { appId, day, kind },
+          update: { $inc: inc },
+          upsert: true,
+        },
+      });
+    }
+
+    if (operations.length > 0) {
+      await LatencyStats.bulkWrite(operations, { ordered: false });
+    }
+    res.status(204).end();
+  } catch (err) {
+    console.error("Error saving latency stats:", err);
+    res.status(500).json({ message: "Failed to save latency stats", error: err.message });
+  }
+};
+
+export const getLatencyStats = async (req, res) => {
+  const { appId } = req.params;
+  if (!mongoose.Types.ObjectId.isValid(appId)) {
+    return res.status(400).json({ message: "Invalid appId" });
+  }
+  const days = Math.min(Math.max(parseInt(req.query.days) || LATENCY_DAYS, 1), 90);
+
+  try {
+    res.json(await getLatencySummary(appId, days));
+  } catch (err) {
+    console.error("Error getting latency stats:", err);
+    res.status(500).json({ message: "Failed to load latency stats", error: err.message });
+  }
+};
+
+// קליטת אצוות אישורים מה-SDK: { token, appId, events: [{ campaignId, event, timestamp }] }
+export const uploadReceipts = async (req, res) => {
+  const { token, appId, events } = req.body;
+
+  if (!token || !mongoose.Types.ObjectId.isValid(appId)) {
+    return res.status(400).json({ message: "Missing token or invalid appId" });
+  }
+  if (!Array.isArray(events) || events.length > MAX_RECEIPTS_PER_BATCH) {
+    return res.status(400).json({ message: "Invalid events" });
+  }
+
+  try {
+    const device = await Device.exists({ token, appId });
+    if (!device) {
+      return res.status(404).json({ message: "Device not found" });
+    }
+
+    // מאחדים את האירועים לפי קמפיין - עדכון אחד לכל קמפיין במקום לכל אירוע
+    const perCampaign = {};
+    for (const { campaignId, event } of events) {
+      if (typeof campaignId !== "string" || !RECEIPT_EVENTS.includes(event)) {
+        continue;
+      }
+      perCampaign[campaignId] ??= {};
+      perCampaign[campaignId][event] = (perCampaign[campaignId][event] || 0) + 1;
+    }
+
+    const operations = Object.entries(perCampaign).map(([campaignId, inc]) => ({
+      updateOne: {
+        filter: { appId, campaignId },
+        update: { $inc: inc },
+        upsert: true,
+      },
+    }));
+
+    if (operations.length > 0) {
+      await CampaignReceipts.bulkWrite(operations, { ordered: false });
+    }
+    res.status(204).end();
+  } catch (err) {
+    console.error("Error saving receipts:", err);
+    res.status(500).json({ message: "Failed to save receipts", error: err.message });
+  }
+};
@@ -0,0 +1,189 @@
+// פורמט בינארי קומפקטי (CBOR) לנקודות הקצה העמוסות של ה-SDK
+// שמות השדות מוחלפים במספרים קטנים - הטבלאות כאן חייבות להתאים ל-CborConverterFactory ב-SDK
+// לקוחות ששולחים JSON ממשיכים לעבוד כרגיל
+
+const CBOR_TYPE = "application/cbor";
+
+// ---------- סכמות ----------
+// שדה רגיל: "name" | אובייקט מקונן: { name, fields } | מערך טאפלים: { name, tuple }
+
+const USER_INFO = {
+  1: "userId",
+  2: "gender",
+  3: "age",
+  4: "interests",
+  5: "lat",
+  6: "lng",
+};
+
+export const REGISTER_SCHEMA = {
+  1: "token",
+  2: "appId",
+  3: "clientId",
+  4: { name: "userInfo", fields: USER_INFO },
+};
+
+export const LOCATION_SCHEMA = {
+  1: "token",
+  2: "lat",
+  3: "lng",
+};
+
+export const LOCATION_BATCH_SCHEMA = {
+  1: "token",
+  2: { name: "points", tuple: ["lat", "lng", "timestamp"] },
+};
+
+// ---------- פענוח ----------
+
+const decodeHalf = (half) => {
+  const exponent = (half >> 10) & 0x1f;
+  const mantissa = half & 0x3ff;
+  let value;
+  if (exponent === 0) value = mantissa * 2 ** -24;
+  else if (exponent === 31) value = mantissa === 0 ? Infinity : NaN;
+  else value = (mantissa + 1024) * 2 ** (exponent - 25);
+  return half & 0x8000 ? -value : value;
+};
+
+export const decodeCbor = (buffer) => {
+  let offset = 0;
+
+  const readArgument = (info) => {
+    if (info < 24) return info;
+    let value;
+    switch (info) {
+      case 24:
+        value = buffer.readUInt8(offset);
+        offset += 1;
+        return value;
+      case 25:
+        value = buffer.readUInt16BE(offset);
+        offset += 2;
+        return value;
+      case 26:
+        value = buffer.readUInt32BE(offset);
+        offset += 4;
+        return value;
+      case 27:
+        value = Number(buffer.readBigUInt64BE(offset));
+        offset += 8;
+        return value;
+      default:
+        throw new Error("Indefinite-length CBOR items are not supported");
+    }
+  };
+
+  const readItem = () => {
+    const initial = buffer.readUInt8(offset);
+    offset += 1;
+    const major = initial >> 5;
+    const info = initial & 0x1f;
+
+    if (major === 7) {
+      switch (info) {
+        case 20:
+          return false;
+        case 21:
+          return true;
+        case 22:
+        case 23:
+          return null;
+        case 25: {
+          const value = decodeHalf(buffer.readUInt16BE(offset));
+          offset += 2;
+          return value;
+        }
+        case 26: {
+          const value = buffer.readFloatBE(offset);
+          offset += 4;
+          return value;
+        }
+        case 27: {
+          const value = buffer.readDoubleBE(offset);
+          offset += 8;
+          return value;
+        }
+        default:
+          throw new Error(`Unsupported CBOR simple value ${info}`);
+      }
+    }
+
+    const argument = readArgument(info);
+    switch (major) {
+      case 0:
+        return argument;
+      case 1:
+        return -1 - argument;
+      case 2: {
+        const bytes = buffer.subarray(offset, offset + argument);
+        offset += argument;
+        return bytes;
+      }
+      case 3: {
+        const text = buffer.toString("utf8", offset, offset + argument);
+        offset += argument;
+        return text;
+      }
+      case 4: {
+        const items = [];
+        for (let i = 0; i < argument; i++) items.push(readItem());
+        return items;
+      }
+      case 5: {
+        const map = {};
+        for (let i = 0; i < argument; i++) {
+          const key = readItem();
+          map[key] = readItem();
+        }
+        return map;
+      }
+      default:
+        // תגיות (major 6) - מתעלמים מהתגית ומחזירים את הערך
+        return readItem();
+    }
+  };
+
+  const value = readItem();
+  if (offset !== buffer.length) {
+    throw new Error("Trailing bytes after CBOR item");
+  }
+  return value;
+};
+
+// מספרים -> שמות לפי סכמה
+const expand = (value, schema) => {
+  if (value === null || typeof value !== "object") return value;
+  const out = {};
+  for (const [key, field] of Object.entries(value)) {
+    const spec = schema[key];
+    if (!spec) continue;
+    if (typeof spec === "string") {
+      out[spec] = field;
+    } else if (spec.fields) {
+      out[spec.name] = expand(field, spec.fields);
+    } else if (spec.tuple) {
+      out[spec.name] = Array.isArray(field)
+        ? field.map((item) =>
+            Object.fromEntries(spec.tuple.map((n, i) => [n, item[i]]))
+          )
+        : field;
+    }
+  }
+  return out;
+};
+
+// ---------- Middlewares ----------
+
+// גוף בקשה ב-CBOR (express.raw כבר קרא אותו ל-Buffer) -> req.body רגיל עם שמות שדות
+export const cborBody = (schema) => (req, res, next) => {
+  if (!req.is(CBOR_TYPE) || !Buffer.isBuffer(req.body)) {
+    return next();
+  }
+  try {
+    req.body = expand(decodeCbor(req.body), schema) || {};
+    next();
+  } catch (err) {
+    res.status(400).json({ message: "Invalid CBOR body", error: err.message });
+  }
+};
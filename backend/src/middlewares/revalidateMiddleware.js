@@ -0,0 +1,9 @@
+// תגובות שה-SDK שומר במטמון: מותר לשמור, אבל חובה לאמת מול השרת (ETag / If-None-Match)
+// Express מחשב ETag ל-res.json ומחזיר 304 כשהתוכן לא השתנה
+// max-age=0 ולא no-cache - כך ה-SDK עדיין יכול להציג את העותק השמור (only-if-cached + max-stale) לפני האימות
+const revalidate = (req, res, next) => {
+  res.set("Cache-Control", "private, max-age=0");
+  next();
+};
+
+export default revalidate;
@@ -0,0 +1,22 @@
+import mongoose from "mongoose";
+
+// מונים לכל קמפיין - מתעדכנים מאצוות אישורים שה-SDK שולח
+const campaignReceiptsSchema = new mongoose.Schema(
+  {
+    appId: {
+      type: mongoose.Schema.Types.ObjectId,
+      ref: "Application",
+      required: true,
+    },
+    campaignId: { type: String, required: true },
+    received: { type: Number, default: 0 },
+    displayed: { type: Number, default: 0 },
+    opened: { type: Number, default: 0 },
+    dismissed: { type: Number, default: 0 },
+  },
+  { timestamps: true }
+);
+
+campaignReceiptsSchema.index({ appId: 1, campaignId: 1 }, { unique: true });
+
+export default mongoose.model("CampaignReceipts", campaignReceiptsSchema);
@@ -23,6 +23,8 @@ const deviceSchema = new mongoose.Schema(
       },
       lastLocationUpdate: { type: Date, default: Date.now }, // 🆕 זמן עדכון מיקום אחרון
     },
+    // גרסת פרופיל – עולה בכל עדכון, משמשת את ה-SDK לשליחת patch עם If-Match
+    profileVersion: { type: Number, default: 0 },
   },
   { timestamps: true }
 );
@@ -0,0 +1,26 @@
+import mongoose from "mongoose";
+
+// היסטוגרמת השהיות יומית לאפליקציה - מצטברת מהעלאות של מכשירים
+// buckets: מספר באקט -> כמות (אותה חלוקה כמו LatencyHistogram ב-SDK)
+const latencyStatsSchema = new mongoose.Schema(
+  {
+    appId: {
+      type: mongoose.Schema.Types.ObjectId,
+      ref: "Application",
+      required: true,
+    },
+    day: { type: String, required: true }, // YYYY-MM-DD
+    kind: {
+      type: String,
+      enum: ["delivery", "display"],
+      required: true,
+    },
+    buckets: { type: Map, of: Number, default: {} },
+    count: { type: Number, default: 0 },
+  },
+  { timestamps: true }
+);
+
+latencyStatsSchema.index({ appId: 1, kind: 1, day: 1 }, { unique: true });
+
+export default mongoose.model("LatencyStats", latencyStatsSchema);
@@ -20,8 +20,15 @@ const notificationLogSchema = new mongoose.Schema(
       type: Object,
       default: null,
     },
+    // מזהה השליחה (זהה למה שנשלח למכשיר) - מקשר בין ההיסטוריה המקומית ב-SDK לרשומה בשרת
+    campaignId: { type: String, default: null },
   },
   { timestamps: true }
 );
 
+// אינדקס להיסטוריה בעמודים לפי מכשיר
+notificationLogSchema.index({ token: 1, sentAt: -1, _id: -1 });
+// אינדקס לסנכרון מצטבר לפי זמן יצירה
+notificationLogSchema.index({ token: 1, createdAt: 1, _id: 1 });
+
 export default mongoose.model("NotificationLog", notificationLogSchema);
@@ -0,0 +1,22 @@
+import mongoose from "mongoose";
+
+// רשומת מחיקה של לוג התראה - מאפשרת ל-SDK לסנכרן מחיקות בסנכרון מצטבר
+// נשמרת לתקופה מוגבלת; מכשיר שלא סונכרן מעבר לה מקבל סנכרון מלא מחדש
+export const TOMBSTONE_TTL_DAYS = 90;
+
+const notificationTombstoneSchema = new mongoose.Schema({
+  token: { type: String, required: true },
+  logId: { type: mongoose.Schema.Types.ObjectId, required: true },
+  deletedAt: { type: Date, default: Date.now },
+});
+
+notificationTombstoneSchema.index({ token: 1, deletedAt: 1 });
+notificationTombstoneSchema.index(
+  { deletedAt: 1 },
+  { expireAfterSeconds: TOMBSTONE_TTL_DAYS * 24 * 60 * 60 }
+);
+
+export default mongoose.model(
+  "NotificationTombstone",
+  notificationTombstoneSchema
+);
@@ -13,6 +13,7 @@ import {
   clearFirebaseCache,
 } from "../controllers/applicationController.js";
 import authenticate from "../middlewares/authMiddleware.js";
+import revalidate from "../middlewares/revalidateMiddleware.js";
 import Application from "../models/Application.js";
 
 const router = express.Router();
@@ -47,7 +48,7 @@ router.get("/debug/all", async (req, res) => {
 router.get("/:appId/client-id", getClientIdByAppId);
 
 // קבלת אינטרסים לפי appId (עבור SDK - ללא authentication) - חייב להיות לפני /:appId
-router.get("/:appId/interests-config", getApplicationInterests);
+router.get("/:appId/interests-config", revalidate, getApplicationInterests);
 
 router.get("/:appId", authenticate, getApplicationById);
 router.get("/:appId/interests", authenticate, getApplicationInterests);
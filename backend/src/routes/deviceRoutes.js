@@ -1,28 +1,45 @@
 import express from "express";
 import {
   registerDeviceToken,
+  bootstrapDevice,
   getDevicesByAppId,
   getDevicesByAppIdDebug,
   getDeviceByToken,
   getDevicesWithLocation,
   updateDeviceInfo,
+  patchDeviceProfile,
   updateDeviceLocation,
+  updateDeviceLocationBatch,
   unregisterDevice,
 } from "../controllers/deviceController.js";
 import authenticate from "../middlewares/authMiddleware.js";
+import revalidate from "../middlewares/revalidateMiddleware.js";
+import {
+  cborBody,
+  REGISTER_SCHEMA,
+  LOCATION_SCHEMA,
+  LOCATION_BATCH_SCHEMA,
+} from "../middlewares/cborMiddleware.js";
 
 const router = express.Router();
 
-router.post("/register", registerDeviceToken);
+router.post("/register", cborBody(REGISTER_SCHEMA), registerDeviceToken);
+router.post("/bootstrap", cborBody(REGISTER_SCHEMA), bootstrapDevice);
 
 router.get("/app/:appId", authenticate, getDevicesByAppId);
 router.get("/app/:appId/debug", getDevicesByAppIdDebug); // Debug endpoint ללא authentication
 router.get("/app/:appId/with-location", authenticate, getDevicesWithLocation);
 
-router.get("/me/:token", getDeviceByToken);
+router.get("/me/:token", revalidate, getDeviceByToken);
 
 router.put("/update", updateDeviceInfo);
-router.put("/update-location", updateDeviceLocation);
+router.patch("/profile", patchDeviceProfile);
+router.put("/update-location", cborBody(LOCATION_SCHEMA), updateDeviceLocation);
+router.put(
+  "/update-location/batch",
+  cborBody(LOCATION_BATCH_SCHEMA),
+  updateDeviceLocationBatch
+);
 
 router.delete("/unregister/:token", unregisterDevice);
 
@@ -3,6 +3,8 @@ import {
   sendNotification,
   getNotificationHistoryByAppId,
   getNotificationHistoryByToken,
+  getNotificationHistoryPageByToken,
+  syncNotificationHistoryByToken,
   deleteNotificationById,
   scheduleNotification,
   getScheduledNotifications,
@@ -13,6 +15,7 @@ import {
   getDailyNotificationStats,
 } from "../controllers/notificationController.js";
 import authenticate from "../middlewares/authMiddleware.js";
+import revalidate from "../middlewares/revalidateMiddleware.js";
 
 const router = express.Router();
 
@@ -24,7 +27,10 @@ router.put("/scheduled/:id", authenticate, updateScheduledNotification);
 router.delete("/scheduled/:id", authenticate, deleteScheduledNotification);
 router.post("/send-to-specific", authenticate, sendToSpecificTokens);
 router.get("/history/app/:appId", getNotificationHistoryByAppId);
-router.get("/history/:token", getNotificationHistoryByToken);
+router.get("/history/:token", revalidate, getNotificationHistoryByToken);
+// גרסאות SDK קודמות עדיין קוראות לכאן - ה-SDK הנוכחי מסנכרן דרך /sync
+router.get("/history/:token/page", revalidate, getNotificationHistoryPageByToken);
+router.get("/history/:token/sync", syncNotificationHistoryByToken);
 router.delete("/:id", deleteNotificationById);
 router.get("/stats/daily/:appId", getDailyNotificationStats);
 
@@ -2,6 +2,9 @@ import express from "express";
 import {
   getOverviewStats,
   getPerUserStats,
+  uploadLatencyStats,
+  getLatencyStats,
+  uploadReceipts,
 } from "../controllers/statsController.js";
 import authenticate from "../middlewares/authMiddleware.js"; // 👈 חדש
 
@@ -9,5 +12,8 @@ const router = express.Router();
 
 router.get("/overview/:appId", getOverviewStats);
 router.get("/per-user/:appId", authenticate, getPerUserStats); // 👈 חדש
+router.post("/latency", uploadLatencyStats); // נקרא מה-SDK במכשיר
+router.get("/latency/:appId", getLatencyStats);
+router.post("/receipts", uploadReceipts); // נקרא מה-SDK במכשיר
 
 export default router;
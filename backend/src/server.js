@@ -20,6 +20,8 @@ app.set("trust proxy", true);
 // Middleware for parsing JSON and handling CORS
 app.use(cors());
 app.use(express.json());
+// גוף בינארי (CBOR) מה-SDK - מפוענח ב-cborBody של כל route
+app.use(express.raw({ type: "application/cbor", limit: "1mb" }));
 
 // ✅ ברירת מחדל עבור בדיקת בריאות מה-Load Balancer
 app.get("/", (req, res) => {
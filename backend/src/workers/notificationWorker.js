@@ -86,6 +86,8 @@ async function processScheduledNotification(notification) {
         const message = {
           notification: { title, body },
           tokens,
+          // מזהה ההתראה המתוזמנת משמש כמזהה קמפיין לסינון כפילויות ב-SDK
+          data: { campaignId: notification._id.toString() },
           android: {
             priority: "high",
             notification: {
@@ -0,0 +1,75 @@
+package com.example.pushnotificationsdk;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Records each endpoint's latency and bounds its connect/read timeouts by a multiple of the observed p99
+ * Until an endpoint has enough samples the configured timeouts apply unchanged.
+ * A timed-out attempt is recorded at its deadline (a censored sample - the real latency was at least
+ * that), so when the network slows down the p99, and with it the deadline, grows instead of every
+ * call timing out against a deadline learned on a faster network.
+ */
+class AdaptiveTimeoutInterceptor implements Interceptor {
+
+    private static final double DEADLINE_PERCENTILE = 0.99;
+
+    private final LatencyTracker latencyTracker;
+    private final boolean adaptive;
+    private final double multiplier;
+    private final long minTimeoutMillis;
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+
+    AdaptiveTimeoutInterceptor(TransportConfig config, LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+        this.adaptive = config.isAdaptiveTimeoutsEnabled();
+        this.multiplier = config.getTimeoutMultiplier();
+        this.minTimeoutMillis = config.getMinTimeoutMillis();
+        this.connectTimeoutMillis = config.getConnectTimeoutMillis();
+        this.readTimeoutMillis = config.getReadTimeoutMillis();
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = ApiClient.endpointOf(request);
+
+        long readDeadline = readTimeoutMillis;
+        if (adaptive) {
+            long p99 = latencyTracker.getPercentile(endpoint, DEADLINE_PERCENTILE);
+            if (p99 >= 0) {
+                long deadline = Math.max(minTimeoutMillis, (long) (p99 * multiplier));
+                readDeadline = Math.min(readTimeoutMillis, deadline);
+                chain = chain
+                        .withConnectTimeout((int) Math.min(connectTimeoutMillis, deadline), TimeUnit.MILLISECONDS)
+                        .withReadTimeout((int) readDeadline, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (InterruptedIOException e) {
+            // Connect/read timeouts - a canceled call says nothing about the network
+            if (!chain.call().isCanceled()) {
+                latencyTracker.record(endpoint, Math.max(readDeadline, System.currentTimeMillis() - start));
+            }
+            throw e;
+        }
+        // Cache hits say nothing about the network
+        if (response.networkResponse() != null) {
+            latencyTracker.record(endpoint, System.currentTimeMillis() - start);
+        }
+        return response;
+    }
+}
@@ -1,46 +1,216 @@
 package com.example.pushnotificationsdk;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
+import okhttp3.Response;
 import okhttp3.logging.HttpLoggingInterceptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
+import retrofit2.Invocation;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 public class ApiClient {
+    private static final String TAG = "PushSDK";
     private static final String BASE_URL = "https://api.notificationspanel.com";
 
 //    private static final String BASE_URL = "http://10.0.2.2:8000";
+    private static final String HTTP_CACHE_DIR = "push_sdk_http_cache";
+
+    private static TransportConfig transportConfig = TransportConfig.defaults();
+    private static File cacheDir;
+    private static OkHttpClient httpClient;
+    private static OkHttpClient mediaHttpClient;
     private static Retrofit retrofit;
+    private static volatile PushApiService service;
+    private static final LatencyTracker latencyTracker = new LatencyTracker();
+    // Shared by the Retrofit converter and the HTTP client - it remembers whether the server accepts CBOR bodies
+    private static final CborConverterFactory cborConverterFactory = new CborConverterFactory();
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    /**
+     * Apply transport settings. Clients built with a previous configuration are discarded,
+     * so this should be called before the first request (PushNotificationManager.initialize does this).
+     */
+    public static synchronized void configure(TransportConfig config) {
+        configure(config, null);
+    }
+
+    /**
+     * Apply transport settings and enable the on-disk HTTP cache for read endpoints
+     * @param context Used to locate the app's cache directory
+     */
+    public static synchronized void configure(TransportConfig config, Context context) {
+        cacheDir = context != null ? new File(context.getCacheDir(), HTTP_CACHE_DIR) : null;
+        transportConfig = config != null ? config : TransportConfig.defaults();
+        if (httpClient != null) {
+            httpClient.connectionPool().evictAll();
+        }
+        httpClient = null;
+        mediaHttpClient = null;
+        retrofit = null;
+        service = null;
+    }
 
+    /**
+     * @return The shared PushApiService proxy (created once per configuration)
+     */
     public static PushApiService getService() {
-        if (retrofit == null) {
-            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-            logging.setLevel(HttpLoggingInterceptor.Level.BODY);
+        PushApiService result = service;
+        if (result == null) {
+            synchronized (ApiClient.class) {
+                if (service == null) {
+                    Retrofit.Builder builder = new Retrofit.Builder()
+                            .baseUrl(BASE_URL + "/")
+                            .client(getHttpClient());
+                    if (transportConfig.isCompactWireFormatEnabled()) {
+                        // Must come first - it only claims the types it can encode and defers to Gson otherwise
+                        builder.addConverterFactory(cborConverterFactory);
+                    }
+                    retrofit = builder
+                            .addConverterFactory(GsonConverterFactory.create(JsonCodecs.gson()))
+                            .build();
+                    service = retrofit.create(PushApiService.class);
+                }
+                result = service;
+            }
+        }
+        return result;
+    }
 
-            OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
-                    .addInterceptor(chain -> {
-                        Request original = chain.request();
-                        Request request = original.newBuilder()
-                                .header("User-Agent", "Android")
-                                .build();
-                        return chain.proceed(request);
-                    })
-                    .addInterceptor(logging)
-                    .connectTimeout(30, TimeUnit.SECONDS)
-                    .readTimeout(30, TimeUnit.SECONDS);
+    static synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            httpClient = buildHttpClient(transportConfig);
+        }
+        return httpClient;
+    }
 
-            // Use default SSL configuration for production security
+    /**
+     * @return Client for fetching notification media from arbitrary hosts - shares the connection
+     * pool and threads of the API client, but none of its API-specific interceptors or cache
+     */
+    static synchronized OkHttpClient getMediaHttpClient() {
+        if (mediaHttpClient == null) {
+            OkHttpClient.Builder builder = getHttpClient().newBuilder().cache(null);
+            builder.interceptors().clear();
+            builder.networkInterceptors().clear();
+            mediaHttpClient = builder.build();
+        }
+        return mediaHttpClient;
+    }
 
-            OkHttpClient client = clientBuilder.build();
+    /**
+     * Open DNS, TLS and a pooled connection to the backend ahead of the first real request
+     */
+    static void warmUp() {
+        // Creating the service up front also moves Retrofit's proxy setup off the first call
+        getService();
 
+        Request request = new Request.Builder()
+                .url(BASE_URL + "/")
+                .head()
+                .build();
+        long start = System.currentTimeMillis();
+        getHttpClient().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                response.close();
+                Log.d(TAG, "✅ Server connection warmed up in " + (System.currentTimeMillis() - start)
+                        + "ms (" + response.protocol() + ")");
+            }
 
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL + "/")
-                    .client(client)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.w(TAG, "⚠️ Server connection warm-up failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return Name used to track an endpoint's latency and circuit state - the PushApiService method if known
+     */
+    static String endpointOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            return invocation.method().getName();
+        }
+        return request.method() + " " + request.url().encodedPath();
+    }
+
+    /**
+     * @return How long to wait before hedging this request, or -1 if it should not be hedged
+     */
+    static long getHedgeDelayMillis(Request request) {
+        TransportConfig config;
+        synchronized (ApiClient.class) {
+            config = transportConfig;
+        }
+        Invocation invocation = request.tag(Invocation.class);
+        if (!config.isHedgedReadsEnabled() || invocation == null
+                || !invocation.method().isAnnotationPresent(Hedged.class)) {
+            return -1;
+        }
+        String cacheControl = request.header("Cache-Control");
+        if (cacheControl != null && cacheControl.contains("only-if-cached")) {
+            return -1;
+        }
+        return latencyTracker.getPercentile(endpointOf(request), HEDGE_PERCENTILE);
+    }
+
+    private static OkHttpClient buildHttpClient(TransportConfig config) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+        OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(),
+                        config.getKeepAliveMillis(), TimeUnit.MILLISECONDS))
+                .protocols(config.isHttp2Enabled()
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .addInterceptor(chain -> {
+                    Request original = chain.request();
+                    Request request = original.newBuilder()
+                            .header("User-Agent", "Android")
+                            .build();
+                    return chain.proceed(request);
+                })
+                .addInterceptor(new CompactWireFallbackInterceptor(cborConverterFactory))
+                .addInterceptor(new GzipRequestInterceptor())
+                .addInterceptor(new RetryInterceptor(config))
+                .addInterceptor(new AdaptiveTimeoutInterceptor(config, latencyTracker))
+                .connectTimeout(config.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getReadTimeoutMillis(), TimeUnit.MILLISECONDS);
+
+        if (cacheDir != null && config.getHttpCacheSizeBytes() > 0) {
+            clientBuilder.cache(new Cache(cacheDir, config.getHttpCacheSizeBytes()))
+                    .addNetworkInterceptor(new RevalidateInterceptor());
+        }
+
+        if (config.getLogLevel() != TransportConfig.LogLevel.NONE) {
+            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+            logging.setLevel(HttpLoggingInterceptor.Level.valueOf(config.getLogLevel().name()));
+            clientBuilder.addInterceptor(logging);
         }
-        return retrofit.create(PushApiService.class);
+
+        // Use default SSL configuration for production security
+
+        return clientBuilder.build();
     }
 }
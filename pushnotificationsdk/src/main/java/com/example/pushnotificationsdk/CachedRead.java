@@ -0,0 +1,73 @@
+package com.example.pushnotificationsdk;
+
+import android.util.Log;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Stale-while-revalidate for cached GET endpoints
+ * The cached copy (if any) is delivered right away, then the server is asked to revalidate it.
+ * The callback fires a second time only if the server returned different content;
+ * a 304 Not Modified is not delivered again.
+ * Identical loads running at the same time share one network call (see InFlightCalls).
+ */
+class CachedRead {
+
+    private static final String TAG = "PushSDK";
+    // How old a cached copy may be and still be shown while revalidating
+    private static final String CACHE_ONLY = "only-if-cached, max-stale=" + (7 * 24 * 60 * 60);
+
+    /**
+     * Creates the call for one endpoint with the given Cache-Control request header (null for the network)
+     */
+    interface Source<T> {
+        Call<T> create(String cacheControl);
+    }
+
+    private CachedRead() {
+    }
+
+    static <T> void load(Source<T> source, Callback<T> callback) {
+        InFlightCalls.enqueue(source.create(CACHE_ONLY), new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> cached) {
+                boolean hit = cached.isSuccessful() && cached.body() != null;
+                if (hit) {
+                    callback.onResponse(call, cached);
+                }
+                revalidate(source, callback, hit);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                revalidate(source, callback, false);
+            }
+        });
+    }
+
+    private static <T> void revalidate(Source<T> source, Callback<T> callback, boolean deliveredFromCache) {
+        InFlightCalls.enqueue(source.create(null), new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                okhttp3.Response networkResponse = response.raw().networkResponse();
+                boolean notModified = networkResponse != null && networkResponse.code() == 304;
+                if (deliveredFromCache && (notModified || !response.isSuccessful())) {
+                    Log.d(TAG, "♻️ " + call.request().url().encodedPath() + " unchanged - served from cache");
+                    return;
+                }
+                callback.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                if (deliveredFromCache) {
+                    Log.w(TAG, "⚠️ Revalidation failed - keeping cached data: " + t.getMessage());
+                    return;
+                }
+                callback.onFailure(call, t);
+            }
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.pushnotificationsdk;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Compact binary (CBOR) encoding for the high-volume request bodies
+ * Fields are keyed by small integers instead of names, and default values (zero coordinates,
+ * empty interests, nulls) are left out. The key tables must match the backend's cborMiddleware.
+ * A server that answers 415 to a CBOR body gets JSON instead - see CompactWireFallbackInterceptor.
+ */
+class CborConverterFactory extends Converter.Factory {
+
+    static final MediaType MEDIA_TYPE = MediaType.get("application/cbor");
+
+    // RegisterDeviceRequest
+    private static final int REGISTER_TOKEN = 1;
+    private static final int REGISTER_APP_ID = 2;
+    private static final int REGISTER_CLIENT_ID = 3;
+    private static final int REGISTER_USER_INFO = 4;
+
+    // UserInfo
+    private static final int USER_ID = 1;
+    private static final int USER_GENDER = 2;
+    private static final int USER_AGE = 3;
+    private static final int USER_INTERESTS = 4;
+    private static final int USER_LAT = 5;
+    private static final int USER_LNG = 6;
+
+    // UpdateLocationRequest
+    private static final int LOCATION_TOKEN = 1;
+    private static final int LOCATION_LAT = 2;
+    private static final int LOCATION_LNG = 3;
+
+    // UpdateLocationBatchRequest - points are sent as [lat, lng, timestamp] tuples
+    private static final int BATCH_TOKEN = 1;
+    private static final int BATCH_POINTS = 2;
+
+    private volatile boolean jsonOnly;
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(Type type, Annotation[] parameterAnnotations,
+                                                          Annotation[] methodAnnotations, Retrofit retrofit) {
+        Converter<?, RequestBody> cbor;
+        if (type == RegisterDeviceRequest.class) {
+            cbor = (Converter<RegisterDeviceRequest, RequestBody>) value -> encode(writer -> writeRegister(writer, value));
+        } else if (type == UpdateLocationRequest.class) {
+            cbor = (Converter<UpdateLocationRequest, RequestBody>) value -> encode(writer -> writeLocation(writer, value));
+        } else if (type == UpdateLocationBatchRequest.class) {
+            cbor = (Converter<UpdateLocationBatchRequest, RequestBody>) value -> encode(writer -> writeLocationBatch(writer, value));
+        } else {
+            return null;
+        }
+        // Resolved up front so switching to JSON later needs no Retrofit lookup
+        return withJsonFallback(cbor, retrofit.nextRequestBodyConverter(this, type, parameterAnnotations, methodAnnotations));
+    }
+
+    /**
+     * Encode request bodies as JSON from now on - the server rejected CBOR
+     */
+    void useJson() {
+        jsonOnly = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Converter<T, RequestBody> withJsonFallback(Converter<?, RequestBody> cbor, Converter<T, RequestBody> json) {
+        Converter<T, RequestBody> compact = (Converter<T, RequestBody>) cbor;
+        return value -> jsonOnly ? json.convert(value) : compact.convert(value);
+    }
+
+    private interface Encoder {
+        void write(CborWriter writer);
+    }
+
+    private static RequestBody encode(Encoder encoder) {
+        Buffer buffer = new Buffer();
+        encoder.write(new CborWriter(buffer));
+        return RequestBody.create(buffer.readByteString(), MEDIA_TYPE);
+    }
+
+    private static void writeRegister(CborWriter writer, RegisterDeviceRequest request) {
+        int entries = count(request.getToken() != null, request.getAppId() != null,
+                request.getClientId() != null, request.getUserInfo() != null);
+        writer.beginMap(entries);
+        if (request.getToken() != null) {
+            writer.key(REGISTER_TOKEN).value(request.getToken());
+        }
+        if (request.getAppId() != null) {
+            writer.key(REGISTER_APP_ID).value(request.getAppId());
+        }
+        if (request.getClientId() != null) {
+            writer.key(REGISTER_CLIENT_ID).value(request.getClientId());
+        }
+        if (request.getUserInfo() != null) {
+            writer.key(REGISTER_USER_INFO);
+            writeUserInfo(writer, request.getUserInfo());
+        }
+    }
+
+    private static void writeUserInfo(CborWriter writer, UserInfo userInfo) {
+        List<String> interests = userInfo.getInterests();
+        boolean hasInterests = interests != null && !interests.isEmpty();
+        // The server treats missing coordinates as 0, so unset locations are not sent at all
+        boolean hasLocation = userInfo.getLat() != 0 || userInfo.getLng() != 0;
+        writer.beginMap(count(userInfo.getUserId() != null, userInfo.getGender() != null,
+                userInfo.getAge() != 0, hasInterests, hasLocation, hasLocation));
+        if (userInfo.getUserId() != null) {
+            writer.key(USER_ID).value(userInfo.getUserId());
+        }
+        if (userInfo.getGender() != null) {
+            writer.key(USER_GENDER).value(userInfo.getGender());
+        }
+        if (userInfo.getAge() != 0) {
+            writer.key(USER_AGE).value(userInfo.getAge());
+        }
+        if (hasInterests) {
+            writer.key(USER_INTERESTS).beginArray(interests.size());
+            for (String interest : interests) {
+                writer.value(interest);
+            }
+        }
+        if (hasLocation) {
+            writer.key(USER_LAT).value(userInfo.getLat());
+            writer.key(USER_LNG).value(userInfo.getLng());
+        }
+    }
+
+    private static void writeLocation(CborWriter writer, UpdateLocationRequest request) {
+        writer.beginMap(3)
+                .key(LOCATION_TOKEN).value(request.getToken())
+                .key(LOCATION_LAT).value(request.getLat())
+                .key(LOCATION_LNG).value(request.getLng());
+    }
+
+    private static void writeLocationBatch(CborWriter writer, UpdateLocationBatchRequest request) {
+        List<LocationPoint> points = request.getPoints() != null ? request.getPoints() : new ArrayList<>();
+        writer.beginMap(2)
+                .key(BATCH_TOKEN).value(request.getToken())
+                .key(BATCH_POINTS).beginArray(points.size());
+        for (LocationPoint point : points) {
+            writer.beginArray(3)
+                    .value(point.getLat())
+                    .value(point.getLng())
+                    .value(point.getTimestamp());
+        }
+    }
+
+    private static int count(boolean... present) {
+        int count = 0;
+        for (boolean value : present) {
+            if (value) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.pushnotificationsdk;
+
+import java.nio.charset.StandardCharsets;
+
+import okio.Buffer;
+
+/**
+ * Minimal CBOR (RFC 8949) encoder for the compact wire format
+ * Only definite-length maps/arrays, text, integers, doubles and null are needed.
+ */
+final class CborWriter {
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+
+    private final Buffer out;
+
+    CborWriter(Buffer out) {
+        this.out = out;
+    }
+
+    CborWriter beginMap(int entries) {
+        writeHead(MAJOR_MAP, entries);
+        return this;
+    }
+
+    CborWriter beginArray(int items) {
+        writeHead(MAJOR_ARRAY, items);
+        return this;
+    }
+
+    CborWriter key(int key) {
+        return value(key);
+    }
+
+    CborWriter value(long value) {
+        if (value >= 0) {
+            writeHead(MAJOR_UNSIGNED, value);
+        } else {
+            writeHead(MAJOR_NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    CborWriter value(double value) {
+        out.writeByte(0xfb);
+        out.writeLong(Double.doubleToLongBits(value));
+        return this;
+    }
+
+    CborWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHead(MAJOR_TEXT, bytes.length);
+        out.write(bytes);
+        return this;
+    }
+
+    CborWriter nullValue() {
+        out.writeByte(0xf6);
+        return this;
+    }
+
+    private void writeHead(int major, long value) {
+        int type = major << 5;
+        if (value < 24) {
+            out.writeByte(type | (int) value);
+        } else if (value <= 0xff) {
+            out.writeByte(type | 24);
+            out.writeByte((int) value);
+        } else if (value <= 0xffff) {
+            out.writeByte(type | 25);
+            out.writeShort((int) value);
+        } else if (value <= 0xffffffffL) {
+            out.writeByte(type | 26);
+            out.writeInt((int) value);
+        } else {
+            out.writeByte(type | 27);
+            out.writeLong(value);
+        }
+    }
+}
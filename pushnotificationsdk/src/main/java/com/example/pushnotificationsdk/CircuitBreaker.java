@@ -0,0 +1,112 @@
+package com.example.pushnotificationsdk;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Per-endpoint circuit breaker
+ * After enough consecutive failures the circuit opens and calls fail immediately.
+ * Once the open period ends a single probe is let through - success closes the circuit again.
+ * A probe that ends without an outcome (canceled) must be released with releaseProbe(); a probe
+ * that never reports back is given up on after the probe timeout, so the circuit cannot stay half-open.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED,     // Calls flow normally
+        OPEN,       // Calls fail fast until the open period ends
+        HALF_OPEN   // One probe call is in flight
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private final long probeTimeoutMillis;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private long probeStartedAt;
+    private Thread probeThread;
+
+    CircuitBreaker(int failureThreshold, long openDurationMillis, long probeTimeoutMillis) {
+        this(failureThreshold, openDurationMillis, probeTimeoutMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openDurationMillis, long probeTimeoutMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.probeTimeoutMillis = probeTimeoutMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if a call may be made now
+     */
+    synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt >= openDurationMillis) {
+                    startProbe();
+                    return true;
+                }
+                return false;
+            default:
+                // A probe is already in flight - unless it has been silent for too long
+                if (clock.getAsLong() - probeStartedAt >= probeTimeoutMillis) {
+                    startProbe();
+                    return true;
+                }
+                return false;
+        }
+    }
+
+    private void startProbe() {
+        state = State.HALF_OPEN;
+        probeStartedAt = clock.getAsLong();
+        probeThread = Thread.currentThread();
+    }
+
+    synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+        probeThread = null;
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+        probeThread = null;
+    }
+
+    /**
+     * Called when a call allowed by allowRequest() ends without a result (e.g. it was canceled)
+     * If it was this thread's probe, the circuit goes back to OPEN with its open period already over,
+     * so the next call becomes the probe.
+     */
+    synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN && probeThread == Thread.currentThread()) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong() - openDurationMillis;
+            probeThread = null;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return Milliseconds until a probe will be allowed, 0 if calls are allowed now
+     */
+    synchronized long getRemainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openDurationMillis - (clock.getAsLong() - openedAt));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.pushnotificationsdk;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of making a call while the endpoint's circuit breaker is open
+ * It is an IOException, so Retrofit delivers it to Callback.onFailure like any network error.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String endpoint;
+    private final long retryAfterMillis;
+
+    CircuitOpenException(String endpoint, long retryAfterMillis) {
+        super("Circuit open for " + endpoint + " - retry in " + retryAfterMillis + "ms");
+        this.endpoint = endpoint;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Persists the clientId resolved for each appId so registrations skip the client-id lookup
+ */
+class ClientIdStore {
+
+    private static final String PREFS_NAME = "PushSDKClientIdPrefs";
+    private static final String KEY_PREFIX = "client_id_";
+
+    private final SharedPreferences sharedPreferences;
+
+    ClientIdStore(Context context) {
+        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    String get(String appId) {
+        return sharedPreferences.getString(KEY_PREFIX + appId, null);
+    }
+
+    void put(String appId, String clientId) {
+        if (clientId == null || clientId.isEmpty()) {
+            return;
+        }
+        sharedPreferences.edit().putString(KEY_PREFIX + appId, clientId).apply();
+    }
+
+    void clear(String appId) {
+        sharedPreferences.edit().remove(KEY_PREFIX + appId).apply();
+    }
+}
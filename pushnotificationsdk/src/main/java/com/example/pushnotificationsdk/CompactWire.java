@@ -0,0 +1,16 @@
+package com.example.pushnotificationsdk;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a PushApiService endpoint that can use the compact binary (CBOR) wire format.
+ * When TransportConfig enables it, request bodies are encoded by CborConverterFactory
+ * (Content-Type: application/cbor).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@interface CompactWire {
+}
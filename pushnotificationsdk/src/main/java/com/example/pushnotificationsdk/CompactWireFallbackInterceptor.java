@@ -0,0 +1,75 @@
+package com.example.pushnotificationsdk;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import retrofit2.Invocation;
+import retrofit2.http.Body;
+
+/**
+ * Resends a CBOR request body as JSON when the server answers 415 Unsupported Media Type
+ * The converter factory is told to encode JSON from then on, so only the first rejected write
+ * of the process pays for the extra round trip.
+ */
+class CompactWireFallbackInterceptor implements Interceptor {
+
+    private static final String TAG = "PushSDK";
+    private static final MediaType JSON = MediaType.get("application/json; charset=UTF-8");
+
+    private final CborConverterFactory converterFactory;
+
+    CompactWireFallbackInterceptor(CborConverterFactory converterFactory) {
+        this.converterFactory = converterFactory;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+        Response response = chain.proceed(request);
+        if (response.code() != 415 || body == null || !CborConverterFactory.MEDIA_TYPE.equals(body.contentType())) {
+            return response;
+        }
+        Object value = bodyArgument(request);
+        if (value == null) {
+            return response;
+        }
+
+        response.close();
+        converterFactory.useJson();
+        Log.w(TAG, "⚠️ Server does not accept CBOR bodies - sending JSON from now on");
+        RequestBody json = RequestBody.create(JsonCodecs.gson().toJson(value), JSON);
+        return chain.proceed(request.newBuilder()
+                .method(request.method(), json)
+                .build());
+    }
+
+    /**
+     * @return The @Body argument of the PushApiService call, or null if the request didn't come from Retrofit
+     */
+    private static Object bodyArgument(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) {
+            return null;
+        }
+        Annotation[][] parameterAnnotations = invocation.method().getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof Body) {
+                    return invocation.arguments().get(i);
+                }
+            }
+        }
+        return null;
+    }
+}
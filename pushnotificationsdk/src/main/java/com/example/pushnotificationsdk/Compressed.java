@@ -0,0 +1,16 @@
+package com.example.pushnotificationsdk;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a PushApiService endpoint whose request body is sent gzip-compressed
+ * (Content-Encoding: gzip). Used for batched uploads, where the repeated keys and IDs
+ * shrink several times over.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@interface Compressed {
+}
@@ -0,0 +1,51 @@
+package com.example.pushnotificationsdk;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs storage compaction (DataCompactor) while the device is idle and charging
+ */
+public class DataCompactionJobService extends JobService {
+
+    private static final String TAG = "PushSDK";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "PushSDK-Compaction");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private volatile boolean stopped;
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        stopped = false;
+        executor.execute(() -> {
+            try {
+                DataCompactor.compact(getApplicationContext(), () -> stopped);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "❌ Storage compaction failed", e);
+            }
+            jobFinished(params, false);
+        });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // The device is no longer idle or charging - finish the current step and try again next window
+        stopped = true;
+        return true;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.pushnotificationsdk;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Applies the retention policies to everything the SDK stores on the device
+ * Policies are persisted, so the compaction job honours them even in a process where the app
+ * has not set them yet. Compaction runs from DataCompactionJobService while the device is idle
+ * and charging - never on the message receive path or at startup.
+ */
+class DataCompactor {
+
+    private static final String TAG = "PushSDK";
+    private static final String PREFS_NAME = "PushSDKRetentionPrefs";
+    private static final String MAX_AGE_SUFFIX = "_max_age";
+    private static final String MAX_ENTRIES_SUFFIX = "_max_entries";
+    private static final String MAX_BYTES_SUFFIX = "_max_bytes";
+
+    // Job IDs are shared with the host app - this one spells "PSDK"
+    static final int JOB_ID = 0x5053444B;
+    private static final long COMPACTION_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+
+    private DataCompactor() {
+    }
+
+    static void setPolicy(Context context, RetentionPolicy.DataSet dataSet, RetentionPolicy policy) {
+        String prefix = dataSet.name().toLowerCase(Locale.ROOT);
+        prefs(context).edit()
+                .putLong(prefix + MAX_AGE_SUFFIX, policy.getMaxAgeMillis())
+                .putInt(prefix + MAX_ENTRIES_SUFFIX, policy.getMaxEntries())
+                .putLong(prefix + MAX_BYTES_SUFFIX, policy.getMaxBytes())
+                .apply();
+    }
+
+    static RetentionPolicy getPolicy(Context context, RetentionPolicy.DataSet dataSet) {
+        SharedPreferences sharedPreferences = prefs(context);
+        String prefix = dataSet.name().toLowerCase(Locale.ROOT);
+        if (!sharedPreferences.contains(prefix + MAX_AGE_SUFFIX)) {
+            return RetentionPolicy.defaults(dataSet);
+        }
+        return new RetentionPolicy.Builder()
+                .setMaxAge(sharedPreferences.getLong(prefix + MAX_AGE_SUFFIX, 0), TimeUnit.MILLISECONDS)
+                .setMaxEntries(sharedPreferences.getInt(prefix + MAX_ENTRIES_SUFFIX, 0))
+                .setMaxBytes(sharedPreferences.getLong(prefix + MAX_BYTES_SUFFIX, 0))
+                .build();
+    }
+
+    /**
+     * Schedule the daily compaction job unless it is already scheduled
+     */
+    static void schedule(Context context) {
+        JobScheduler jobScheduler = context.getSystemService(JobScheduler.class);
+        if (jobScheduler == null || jobScheduler.getPendingJob(JOB_ID) != null) {
+            return;
+        }
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, DataCompactionJobService.class))
+                .setRequiresDeviceIdle(true)
+                .setRequiresCharging(true)
+                .setPeriodic(COMPACTION_INTERVAL_MS)
+                .build();
+        try {
+            jobScheduler.schedule(job);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "⚠️ Could not schedule storage compaction", e);
+        }
+    }
+
+    /**
+     * Trim every data set to its policy. Runs on the job's background thread.
+     * @param stopped Checked between data sets - returns true once the job should stop
+     */
+    static void compact(Context context, BooleanSupplier stopped) {
+        long started = System.currentTimeMillis();
+
+        int history = NotificationHistoryManager.get(context)
+                .compact(getPolicy(context, RetentionPolicy.DataSet.HISTORY));
+        if (stopped.getAsBoolean()) {
+            return;
+        }
+
+        int outbox = PushNotificationManager.compactOutbox(getPolicy(context, RetentionPolicy.DataSet.OUTBOX));
+        if (stopped.getAsBoolean()) {
+            return;
+        }
+
+        RetentionPolicy telemetryPolicy = getPolicy(context, RetentionPolicy.DataSet.TELEMETRY);
+        int receipts = ReceiptRecorder.get(context).compact(telemetryPolicy);
+        LatencyRecorder.get(context).compact(telemetryPolicy);
+
+        Log.d(TAG, "🧹 Storage compacted in " + (System.currentTimeMillis() - started) + "ms - removed "
+                + history + " history, " + outbox + " outbox, " + receipts + " receipt entries");
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
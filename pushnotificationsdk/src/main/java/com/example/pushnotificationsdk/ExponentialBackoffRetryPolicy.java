@@ -0,0 +1,96 @@
+package com.example.pushnotificationsdk;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default RetryPolicy: exponential backoff with full jitter
+ * Retries network errors, 408, 429 and 5xx responses. A server Retry-After is honored
+ * as long as it fits within the maximum delay - otherwise the request fails fast.
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    private ExponentialBackoffRetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+    }
+
+    /**
+     * @return Policy with the SDK defaults (3 attempts, 500ms base delay, 10s cap)
+     */
+    public static ExponentialBackoffRetryPolicy defaults() {
+        return new Builder().build();
+    }
+
+    @Override
+    public long getRetryDelayMillis(int attempt, int statusCode, long retryAfterMillis) {
+        if (attempt >= maxAttempts || !isRetryable(statusCode)) {
+            return NO_RETRY;
+        }
+        if (retryAfterMillis >= 0) {
+            return retryAfterMillis <= maxDelayMillis ? retryAfterMillis : NO_RETRY;
+        }
+        // Full jitter: spread clients uniformly over [0, backoff) so they don't retry in lockstep
+        long backoff = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == 0 || statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    // Builder pattern for easy configuration
+    public static class Builder {
+        private int maxAttempts = 3;
+        private long baseDelayMillis = 500;
+        private long maxDelayMillis = TimeUnit.SECONDS.toMillis(10);
+
+        /**
+         * Total attempts including the first one. 1 disables retries.
+         */
+        public Builder setMaxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be >= 1");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder setBaseDelay(long delay, TimeUnit unit) {
+            if (delay <= 0) {
+                throw new IllegalArgumentException("Base delay must be positive");
+            }
+            this.baseDelayMillis = unit.toMillis(delay);
+            return this;
+        }
+
+        public Builder setMaxDelay(long delay, TimeUnit unit) {
+            if (delay <= 0) {
+                throw new IllegalArgumentException("Max delay must be positive");
+            }
+            this.maxDelayMillis = unit.toMillis(delay);
+            return this;
+        }
+
+        public ExponentialBackoffRetryPolicy build() {
+            return new ExponentialBackoffRetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.pushnotificationsdk;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import retrofit2.Invocation;
+
+/**
+ * Gzips request bodies of @Compressed endpoints
+ * The compressed body is buffered so it has a known length - retries can replay it
+ * and the request goes out without chunked encoding.
+ */
+class GzipRequestInterceptor implements Interceptor {
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+        Invocation invocation = request.tag(Invocation.class);
+        if (body == null || request.header("Content-Encoding") != null || invocation == null
+                || !invocation.method().isAnnotationPresent(Compressed.class)) {
+            return chain.proceed(request);
+        }
+
+        Buffer compressed = new Buffer();
+        try (BufferedSink gzipSink = Okio.buffer(new GzipSink(compressed))) {
+            body.writeTo(gzipSink);
+        }
+        MediaType contentType = body.contentType();
+        return chain.proceed(request.newBuilder()
+                .header("Content-Encoding", "gzip")
+                .method(request.method(), RequestBody.create(compressed.readByteString(), contentType))
+                .build());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.pushnotificationsdk;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an idempotent PushApiService GET that may be hedged:
+ * if it runs slower than the endpoint's usual p95, a second identical request is sent
+ * and whichever answers first wins. Only applies when TransportConfig enables hedged reads.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@interface Hedged {
+}
@@ -0,0 +1,96 @@
+package com.example.pushnotificationsdk;
+
+import android.util.Log;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Runs an idempotent call and, if it has not answered within the hedge delay, a second identical copy
+ * The first HTTP response wins and the other call is cancelled. A network failure is only
+ * delivered once no copy is left running.
+ */
+final class HedgedCall<T> implements Callback<T> {
+
+    private static final String TAG = "PushSDK";
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "PushSDK-Hedge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Call<T> primary;
+    private final Callback<T> callback;
+    private ScheduledFuture<?> scheduledHedge;
+    private Call<T> hedge;
+    private int running;
+    private boolean done;
+
+    private HedgedCall(Call<T> primary, Callback<T> callback) {
+        this.primary = primary;
+        this.callback = callback;
+    }
+
+    static <T> void enqueue(Call<T> call, Callback<T> callback, long hedgeDelayMillis) {
+        HedgedCall<T> hedgedCall = new HedgedCall<>(call, callback);
+        synchronized (hedgedCall) {
+            hedgedCall.running = 1;
+            call.enqueue(hedgedCall);
+            hedgedCall.scheduledHedge = scheduler.schedule(hedgedCall::launchHedge,
+                    hedgeDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void launchHedge() {
+        if (done) {
+            return;
+        }
+        Log.d(TAG, "🏁 Hedging slow request " + primary.request().url().encodedPath());
+        hedge = primary.clone();
+        running++;
+        hedge.enqueue(this);
+    }
+
+    @Override
+    public void onResponse(Call<T> call, Response<T> response) {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            cancelOthers(call);
+        }
+        callback.onResponse(call, response);
+    }
+
+    @Override
+    public void onFailure(Call<T> call, Throwable t) {
+        synchronized (this) {
+            if (done || --running > 0) {
+                // Already answered, or the other copy may still succeed
+                return;
+            }
+            done = true;
+            cancelOthers(call);
+        }
+        callback.onFailure(call, t);
+    }
+
+    private void cancelOthers(Call<T> winner) {
+        if (scheduledHedge != null) {
+            scheduledHedge.cancel(false);
+        }
+        if (primary != winner) {
+            primary.cancel();
+        }
+        if (hedge != null && hedge != winner) {
+            hedge.cancel();
+        }
+    }
+}
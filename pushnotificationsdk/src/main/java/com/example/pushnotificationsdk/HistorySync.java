@@ -0,0 +1,165 @@
+package com.example.pushnotificationsdk;
+
+import android.util.Log;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Incremental sync of the server's notification history into the local store
+ * The server returns only entries created or deleted since the stored cursor, so reopening the
+ * history usually costs a near-empty response. Responses are read as a stream and applied in
+ * small transactions - a large first sync is never held in memory as one list, and never blocks
+ * the receive path's inserts for long.
+ */
+class HistorySync {
+
+    private static final String TAG = "History";
+    // Entries per request - the server caps this at 500
+    private static final int REQUEST_LIMIT = 200;
+    // Entries per store transaction
+    private static final int APPLY_CHUNK_SIZE = 50;
+    // Requests per sync - the rest is picked up next time the history is opened
+    private static final int MAX_REQUESTS = 20;
+
+    private final NotificationHistoryManager history;
+    private final TypeAdapter<NotificationLog> logAdapter = JsonCodecs.gson().getAdapter(NotificationLog.class);
+
+    HistorySync(NotificationHistoryManager history) {
+        this.history = history;
+    }
+
+    /**
+     * Bring the local history up to date. Blocks - call it on a background thread.
+     * @return true if the local history changed
+     */
+    boolean sync(String token) throws IOException {
+        boolean changed = false;
+        for (int request = 0; request < MAX_REQUESTS; request++) {
+            SyncResult result = syncOnce(token, history.getSyncCursor());
+            if (result == null) {
+                break;
+            }
+            changed |= result.changed;
+            if (!result.hasMore) {
+                break;
+            }
+        }
+        return changed;
+    }
+
+    private SyncResult syncOnce(String token, String since) throws IOException {
+        Response<ResponseBody> response = ApiClient.getService()
+                .syncNotificationHistory(token, since, REQUEST_LIMIT).execute();
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            Log.e(TAG, "Sync response error: " + response.code());
+            if (body != null) {
+                body.close();
+            }
+            return null;
+        }
+
+        SyncResult result = new SyncResult();
+        String nextCursor = null;
+        List<String> deletedLocally = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(body.charStream())) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "reset":
+                        // Sent before the items on a full sync - first sync, or our cursor is older than
+                        // the server keeps deletions. Server entries stored so far may be stale.
+                        if (reader.nextBoolean()) {
+                            history.resetSync();
+                            result.changed = true;
+                        }
+                        break;
+                    case "items":
+                        result.changed |= readItems(reader, deletedLocally);
+                        break;
+                    case "deleted":
+                        result.changed |= readDeleted(reader);
+                        break;
+                    case "cursor":
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                        } else {
+                            nextCursor = reader.nextString();
+                        }
+                        break;
+                    case "hasMore":
+                        result.hasMore = reader.nextBoolean();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+
+        // Only a fully applied response moves the cursor - an interrupted one is simply fetched again
+        if (nextCursor != null) {
+            history.setSyncCursor(nextCursor);
+        }
+        for (String id : deletedLocally) {
+            // Deleted on this device before the server log was known - delete it on the server too
+            PushNotificationManager.getInstance().deleteNotification(id);
+        }
+        return result;
+    }
+
+    private boolean readItems(JsonReader reader, List<String> deletedLocally) throws IOException {
+        boolean changed = false;
+        List<NotificationLog> chunk = new ArrayList<>(APPLY_CHUNK_SIZE);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            chunk.add(logAdapter.read(reader));
+            if (chunk.size() == APPLY_CHUNK_SIZE) {
+                deletedLocally.addAll(history.applySync(chunk, Collections.emptyList()));
+                chunk.clear();
+                changed = true;
+            }
+        }
+        reader.endArray();
+        if (!chunk.isEmpty()) {
+            deletedLocally.addAll(history.applySync(chunk, Collections.emptyList()));
+            changed = true;
+        }
+        return changed;
+    }
+
+    private boolean readDeleted(JsonReader reader) throws IOException {
+        boolean changed = false;
+        List<String> chunk = new ArrayList<>(APPLY_CHUNK_SIZE);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            chunk.add(reader.nextString());
+            if (chunk.size() == APPLY_CHUNK_SIZE) {
+                history.applySync(Collections.emptyList(), chunk);
+                chunk.clear();
+                changed = true;
+            }
+        }
+        reader.endArray();
+        if (!chunk.isEmpty()) {
+            history.applySync(Collections.emptyList(), chunk);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static final class SyncResult {
+        boolean changed;
+        boolean hasMore;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.pushnotificationsdk;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Single-flight registry for GET calls
+ * A call identical to one already in flight (same URL and Cache-Control) is not sent -
+ * its callback is attached to the running call and receives the same result.
+ * Deserialized bodies are shared between the callbacks, so they must not be modified.
+ * Error bodies are read once and each callback gets its own copy, since a ResponseBody can only be read once.
+ * Endpoints marked @Hedged are sent as a HedgedCall when hedged reads are enabled.
+ */
+final class InFlightCalls {
+
+    private static final String TAG = "PushSDK";
+    private static final Map<String, List<Callback<?>>> inFlight = new HashMap<>();
+
+    private InFlightCalls() {
+    }
+
+    static <T> void enqueue(Call<T> call, Callback<T> callback) {
+        Request request = call.request();
+        if (!"GET".equals(request.method())) {
+            call.enqueue(callback);
+            return;
+        }
+
+        String key = request.url() + "|" + request.header("Cache-Control");
+        synchronized (inFlight) {
+            List<Callback<?>> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(callback);
+                Log.d(TAG, "🔗 Joined in-flight request " + request.url().encodedPath()
+                        + " (" + waiting.size() + " callers)");
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlight.put(key, waiting);
+        }
+
+        Callback<T> fanOut = new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful() || response.errorBody() == null) {
+                    for (Callback<T> waiting : InFlightCalls.<T>complete(key)) {
+                        waiting.onResponse(call, response);
+                    }
+                    return;
+                }
+
+                ResponseBody errorBody = response.errorBody();
+                byte[] errorBytes;
+                try {
+                    errorBytes = errorBody.bytes();
+                } catch (IOException e) {
+                    onFailure(call, e);
+                    return;
+                }
+                for (Callback<T> waiting : InFlightCalls.<T>complete(key)) {
+                    ResponseBody copy = ResponseBody.create(errorBytes, errorBody.contentType());
+                    waiting.onResponse(call, Response.error(copy, response.raw()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                for (Callback<T> waiting : InFlightCalls.<T>complete(key)) {
+                    waiting.onFailure(call, t);
+                }
+            }
+        };
+
+        long hedgeDelay = ApiClient.getHedgeDelayMillis(request);
+        if (hedgeDelay >= 0) {
+            HedgedCall.enqueue(call, fanOut, hedgeDelay);
+        } else {
+            call.enqueue(fanOut);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<Callback<T>> complete(String key) {
+        synchronized (inFlight) {
+            List<?> waiting = inFlight.remove(key);
+            return waiting != null ? (List<Callback<T>>) waiting : new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.pushnotificationsdk;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared Gson instance with hand-written streaming adapters for the SDK's wire models
+ * The adapters read fields by name without reflection, and skip fields the SDK never uses
+ * (such as a history entry's token and filters) without materializing them.
+ */
+final class JsonCodecs {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(UserInfo.class, new UserInfoAdapter().nullSafe())
+            .registerTypeAdapter(RegisterDeviceRequest.class, new RegisterDeviceRequestAdapter().nullSafe())
+            .registerTypeAdapter(UserInfoResponse.class, new UserInfoResponseAdapter().nullSafe())
+            .registerTypeAdapter(NotificationLog.class, new NotificationLogAdapter().nullSafe())
+            .registerTypeAdapter(InterestsConfigResponse.class, new InterestsConfigResponseAdapter().nullSafe())
+            .create();
+
+    private JsonCodecs() {
+    }
+
+    static Gson gson() {
+        return GSON;
+    }
+
+    static final class UserInfoAdapter extends TypeAdapter<UserInfo> {
+        @Override
+        public void write(JsonWriter out, UserInfo value) throws IOException {
+            out.beginObject();
+            out.name("userId").value(value.getUserId());
+            out.name("gender").value(value.getGender());
+            out.name("age").value(value.getAge());
+            out.name("interests");
+            writeStrings(out, value.getInterests());
+            out.name("lat").value(value.getLat());
+            out.name("lng").value(value.getLng());
+            out.endObject();
+        }
+
+        @Override
+        public UserInfo read(JsonReader in) throws IOException {
+            String userId = null;
+            String gender = null;
+            int age = 0;
+            List<String> interests = null;
+            double lat = 0;
+            double lng = 0;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "userId":
+                        userId = nextStringOrNull(in);
+                        break;
+                    case "gender":
+                        gender = nextStringOrNull(in);
+                        break;
+                    case "age":
+                        age = (int) nextDoubleOr(in, 0);
+                        break;
+                    case "interests":
+                        interests = readStrings(in);
+                        break;
+                    case "lat":
+                        lat = nextDoubleOr(in, 0);
+                        break;
+                    case "lng":
+                        lng = nextDoubleOr(in, 0);
+                        break;
+                    case "location":
+                        // Server documents nest the coordinates under "location"
+                        double[] location = readLocation(in);
+                        if (location != null) {
+                            lat = location[0];
+                            lng = location[1];
+                        }
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new UserInfo(userId, gender, age, interests, lat, lng);
+        }
+
+        private static double[] readLocation(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            double[] location = new double[2];
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "lat":
+                        location[0] = nextDoubleOr(in, 0);
+                        break;
+                    case "lng":
+                        location[1] = nextDoubleOr(in, 0);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return location;
+        }
+    }
+
+    static final class RegisterDeviceRequestAdapter extends TypeAdapter<RegisterDeviceRequest> {
+        private final UserInfoAdapter userInfoAdapter = new UserInfoAdapter();
+
+        @Override
+        public void write(JsonWriter out, RegisterDeviceRequest value) throws IOException {
+            out.beginObject();
+            out.name("token").value(value.getToken());
+            out.name("appId").value(value.getAppId());
+            if (value.getClientId() != null) {
+                out.name("clientId").value(value.getClientId());
+            }
+            if (value.getUserInfo() != null) {
+                out.name("userInfo");
+                userInfoAdapter.write(out, value.getUserInfo());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public RegisterDeviceRequest read(JsonReader in) throws IOException {
+            String token = null;
+            String appId = null;
+            String clientId = null;
+            UserInfo userInfo = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "token":
+                        token = nextStringOrNull(in);
+                        break;
+                    case "appId":
+                        appId = nextStringOrNull(in);
+                        break;
+                    case "clientId":
+                        clientId = nextStringOrNull(in);
+                        break;
+                    case "userInfo":
+                        userInfo = readNullable(in, userInfoAdapter);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new RegisterDeviceRequest(token, appId, clientId, userInfo);
+        }
+    }
+
+    static final class UserInfoResponseAdapter extends TypeAdapter<UserInfoResponse> {
+        private final UserInfoAdapter userInfoAdapter = new UserInfoAdapter();
+
+        @Override
+        public void write(JsonWriter out, UserInfoResponse value) throws IOException {
+            out.beginObject();
+            if (value.getUserInfo() != null) {
+                out.name("userInfo");
+                userInfoAdapter.write(out, value.getUserInfo());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public UserInfoResponse read(JsonReader in) throws IOException {
+            UserInfo userInfo = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("userInfo".equals(in.nextName())) {
+                    userInfo = readNullable(in, userInfoAdapter);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new UserInfoResponse(userInfo);
+        }
+    }
+
+    static final class NotificationLogAdapter extends TypeAdapter<NotificationLog> {
+        @Override
+        public void write(JsonWriter out, NotificationLog value) throws IOException {
+            out.beginObject();
+            out.name("_id").value(value.getId());
+            out.name("title").value(value.getTitle());
+            out.name("body").value(value.getBody());
+            out.name("type").value(value.getType());
+            out.name("sentAt").value(value.getSentAt());
+            out.name("campaignId").value(value.getCampaignId());
+            out.endObject();
+        }
+
+        @Override
+        public NotificationLog read(JsonReader in) throws IOException {
+            String id = null;
+            String title = null;
+            String body = null;
+            String type = null;
+            String sentAt = null;
+            String campaignId = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "_id":
+                        id = nextStringOrNull(in);
+                        break;
+                    case "title":
+                        title = nextStringOrNull(in);
+                        break;
+                    case "body":
+                        body = nextStringOrNull(in);
+                        break;
+                    case "type":
+                        type = nextStringOrNull(in);
+                        break;
+                    case "sentAt":
+                        sentAt = nextStringOrNull(in);
+                        break;
+                    case "campaignId":
+                        campaignId = nextStringOrNull(in);
+                        break;
+                    default:
+                        // token, filters, appId, timestamps... - never shown, skipped without allocation
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new NotificationLog(id, title, body, type, sentAt, campaignId);
+        }
+    }
+
+    static final class InterestsConfigResponseAdapter extends TypeAdapter<InterestsConfigResponse> {
+        @Override
+        public void write(JsonWriter out, InterestsConfigResponse value) throws IOException {
+            out.beginObject();
+            out.name("interests");
+            writeStrings(out, value.getInterests());
+            out.endObject();
+        }
+
+        @Override
+        public InterestsConfigResponse read(JsonReader in) throws IOException {
+            List<String> interests = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("interests".equals(in.nextName())) {
+                    interests = readStrings(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new InterestsConfigResponse(interests);
+        }
+    }
+
+    private static <T> T readNullable(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return adapter.read(in);
+    }
+
+    private static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static double nextDoubleOr(JsonReader in, double fallback) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        return in.nextDouble();
+    }
+
+    private static List<String> readStrings(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(nextStringOrNull(in));
+        }
+        in.endArray();
+        return values;
+    }
+
+    private static void writeStrings(JsonWriter out, List<String> values) throws IOException {
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.pushnotificationsdk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-memory latency histogram with HDR-style log-linear buckets
+ * Values below 16ms get exact buckets; above that every power of two is split into 16 buckets,
+ * so any recorded value is reported within ~6% of its true value. Values are capped at ~4.6 hours.
+ * The bucket layout must match the backend's latency aggregation (statsController).
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_VALUE = (1L << 24) - 1;
+    static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long maxValue;
+
+    void record(long valueMillis) {
+        long value = Math.max(0, Math.min(MAX_VALUE, valueMillis));
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, value);
+    }
+
+    void add(int bucket, long count) {
+        if (bucket < 0 || bucket >= BUCKET_COUNT || count <= 0) {
+            return;
+        }
+        counts[bucket] += count;
+        totalCount += count;
+        maxValue = Math.max(maxValue, bucketValue(bucket));
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @param percentile Between 0 and 100, e.g. 99
+     * @return Latency in ms at that percentile, or 0 if nothing was recorded
+     */
+    long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * @return Non-empty buckets as [bucket, count] pairs - the compact upload/persistence form
+     */
+    List<long[]> toSparse() {
+        List<long[]> sparse = new ArrayList<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] > 0) {
+                sparse.add(new long[]{i, counts[i]});
+            }
+        }
+        return sparse;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        long top = value >>> shift; // SUB_BUCKETS..2*SUB_BUCKETS-1
+        return (shift + 1) * SUB_BUCKETS + (int) (top - SUB_BUCKETS);
+    }
+
+    /**
+     * @return The middle of the bucket's value range
+     */
+    static long bucketValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return (top << shift) + ((1L << shift) >> 1);
+    }
+}
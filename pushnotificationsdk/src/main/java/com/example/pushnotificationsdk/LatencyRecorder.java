@@ -0,0 +1,189 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.List;
+
+/**
+ * Records how long messages take to reach the device (delivery) and to be shown (display)
+ * Two histograms are kept per metric: one covering everything recorded on this install, for the
+ * public percentile API, and one with the samples not yet handed to the outbox for upload.
+ * Both live in fixed-size bucket arrays, so memory does not grow with the number of messages.
+ */
+class LatencyRecorder {
+
+    private static final String PREFS_NAME = "PushSDKLatencyPrefs";
+    private static final String DELIVERY_KEY = "delivery";
+    private static final String DISPLAY_KEY = "display";
+    private static final String PENDING_DELIVERY_KEY = "pending_delivery";
+    private static final String PENDING_DISPLAY_KEY = "pending_display";
+    private static final String PENDING_SINCE_KEY = "pending_since";
+    private static final String SINCE_KEY = "since";
+
+    // Upload once this many messages were recorded, or once the oldest pending sample is this old
+    static final int UPLOAD_BATCH_SIZE = 50;
+    static final long UPLOAD_MAX_AGE_MS = 60 * 60 * 1000;
+
+    private static volatile LatencyRecorder instance;
+
+    private final SharedPreferences sharedPreferences;
+    private final LatencyHistogram delivery;
+    private final LatencyHistogram display;
+    private final LatencyHistogram pendingDelivery;
+    private final LatencyHistogram pendingDisplay;
+    private long pendingSince;
+    // When the install-wide histograms started collecting
+    private long since;
+
+    static LatencyRecorder get(Context context) {
+        LatencyRecorder result = instance;
+        if (result == null) {
+            synchronized (LatencyRecorder.class) {
+                if (instance == null) {
+                    instance = new LatencyRecorder(context.getApplicationContext());
+                }
+                result = instance;
+            }
+        }
+        return result;
+    }
+
+    private LatencyRecorder(Context context) {
+        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        delivery = load(DELIVERY_KEY);
+        display = load(DISPLAY_KEY);
+        pendingDelivery = load(PENDING_DELIVERY_KEY);
+        pendingDisplay = load(PENDING_DISPLAY_KEY);
+        pendingSince = sharedPreferences.getLong(PENDING_SINCE_KEY, 0);
+        since = sharedPreferences.getLong(SINCE_KEY, 0);
+    }
+
+    /**
+     * Record one received message
+     * @param deliveryMillis Send-to-receive time, or -1 if unknown
+     * @param displayMillis Receive-to-notify time, or -1 if the message was not displayed
+     * @return true if enough samples are pending that a batch should be uploaded
+     */
+    synchronized boolean record(long deliveryMillis, long displayMillis) {
+        if (deliveryMillis < 0 && displayMillis < 0) {
+            return false;
+        }
+        if (deliveryMillis >= 0) {
+            delivery.record(deliveryMillis);
+            pendingDelivery.record(deliveryMillis);
+        }
+        if (displayMillis >= 0) {
+            display.record(displayMillis);
+            pendingDisplay.record(displayMillis);
+        }
+        long now = System.currentTimeMillis();
+        if (pendingSince == 0) {
+            pendingSince = now;
+        }
+        if (since == 0) {
+            since = now;
+        }
+        save();
+        return Math.max(pendingDelivery.getTotalCount(), pendingDisplay.getTotalCount()) >= UPLOAD_BATCH_SIZE
+                || now - pendingSince >= UPLOAD_MAX_AGE_MS;
+    }
+
+    synchronized LatencySnapshot getDeliverySnapshot() {
+        return new LatencySnapshot(delivery);
+    }
+
+    synchronized LatencySnapshot getDisplaySnapshot() {
+        return new LatencySnapshot(display);
+    }
+
+    /**
+     * Hand the pending samples over for upload and start a new batch
+     * The outbox persists the returned request, so the samples are not lost if the process dies.
+     * @return The upload request, or null if nothing is pending
+     */
+    synchronized LatencyUploadRequest drainPending(String token, String appId) {
+        if (pendingDelivery.getTotalCount() == 0 && pendingDisplay.getTotalCount() == 0) {
+            return null;
+        }
+        LatencyUploadRequest request = new LatencyUploadRequest(token, appId,
+                pendingDelivery.toSparse(), pendingDisplay.toSparse());
+        pendingDelivery.clear();
+        pendingDisplay.clear();
+        pendingSince = 0;
+        save();
+        return request;
+    }
+
+    /**
+     * Apply the telemetry retention policy
+     * The histograms have a fixed size, so only the age limit applies: install-wide percentiles restart
+     * once they cover more than the maximum age, and samples that were never uploaded are discarded.
+     */
+    synchronized void compact(RetentionPolicy policy) {
+        if (policy.getMaxAgeMillis() <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - policy.getMaxAgeMillis();
+        boolean changed = false;
+        if (since != 0 && since < cutoff) {
+            delivery.clear();
+            display.clear();
+            since = 0;
+            changed = true;
+        }
+        if (pendingSince != 0 && pendingSince < cutoff) {
+            pendingDelivery.clear();
+            pendingDisplay.clear();
+            pendingSince = 0;
+            changed = true;
+        }
+        if (changed) {
+            save();
+        }
+    }
+
+    private LatencyHistogram load(String key) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        String stored = sharedPreferences.getString(key, null);
+        if (stored == null || stored.isEmpty()) {
+            return histogram;
+        }
+        for (String pair : stored.split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                histogram.add(Integer.parseInt(pair.substring(0, separator)),
+                        Long.parseLong(pair.substring(separator + 1)));
+            } catch (NumberFormatException ignored) {
+                // Skip a corrupt pair rather than losing the whole histogram
+            }
+        }
+        return histogram;
+    }
+
+    private void save() {
+        sharedPreferences.edit()
+                .putString(DELIVERY_KEY, encode(delivery.toSparse()))
+                .putString(DISPLAY_KEY, encode(display.toSparse()))
+                .putString(PENDING_DELIVERY_KEY, encode(pendingDelivery.toSparse()))
+                .putString(PENDING_DISPLAY_KEY, encode(pendingDisplay.toSparse()))
+                .putLong(PENDING_SINCE_KEY, pendingSince)
+                .putLong(SINCE_KEY, since)
+                .apply();
+    }
+
+    // Compact "bucket:count,bucket:count" form - only non-empty buckets are stored
+    private static String encode(List<long[]> sparse) {
+        StringBuilder builder = new StringBuilder(sparse.size() * 8);
+        for (long[] pair : sparse) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(pair[0]).append(':').append(pair[1]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * Point-in-time view of a latency distribution recorded on this device
+ * All values are in milliseconds and accurate to within ~6% (see LatencyHistogram).
+ */
+public final class LatencySnapshot {
+
+    private final long count;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+    private final long max;
+
+    LatencySnapshot(LatencyHistogram histogram) {
+        this.count = histogram.getTotalCount();
+        this.p50 = histogram.getValueAtPercentile(50);
+        this.p95 = histogram.getValueAtPercentile(95);
+        this.p99 = histogram.getValueAtPercentile(99);
+        this.max = histogram.getMaxValue();
+    }
+
+    /**
+     * @return Number of recorded samples
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP95() {
+        return p95;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{count=" + count + ", p50=" + p50 + "ms, p95=" + p95
+                + "ms, p99=" + p99 + "ms, max=" + max + "ms}";
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.pushnotificationsdk;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling window of recent request latencies per endpoint
+ * Used to derive per-endpoint deadlines and hedging delays from what the network is actually doing.
+ */
+class LatencyTracker {
+
+    private static final int WINDOW_SIZE = 100;
+    // Percentiles are not trusted until an endpoint has this many samples
+    private static final int MIN_SAMPLES = 20;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyMillis) {
+        windows.computeIfAbsent(endpoint, key -> new Window()).add(latencyMillis);
+    }
+
+    /**
+     * @param percentile Between 0 and 1, e.g. 0.99
+     * @return The latency at that percentile in ms, or -1 if there are not enough samples yet
+     */
+    long getPercentile(String endpoint, double percentile) {
+        Window window = windows.get(endpoint);
+        return window != null ? window.percentile(percentile) : -1;
+    }
+
+    private static class Window {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int count;
+        private int next;
+
+        synchronized void add(long latencyMillis) {
+            samples[next] = latencyMillis;
+            next = (next + 1) % WINDOW_SIZE;
+            count = Math.min(count + 1, WINDOW_SIZE);
+        }
+
+        synchronized long percentile(double percentile) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.pushnotificationsdk;
+
+import java.util.List;
+
+/**
+ * Request class for uploading a batch of latency samples as sparse histograms
+ * Each histogram is a list of [bucket, count] pairs (see LatencyHistogram)
+ */
+public class LatencyUploadRequest {
+    private String token;
+    private String appId;
+    private List<long[]> delivery;
+    private List<long[]> display;
+
+    public LatencyUploadRequest(String token, String appId, List<long[]> delivery, List<long[]> display) {
+        this.token = token;
+        this.appId = appId;
+        this.delivery = delivery;
+        this.display = display;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public List<long[]> getDelivery() {
+        return delivery;
+    }
+
+    public List<long[]> getDisplay() {
+        return display;
+    }
+}
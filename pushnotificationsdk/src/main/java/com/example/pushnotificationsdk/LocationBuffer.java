@@ -0,0 +1,61 @@
+package com.example.pushnotificationsdk;
+
+import android.location.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-device buffer that filters location fixes by distance and time
+ * Fixes that moved less than the distance threshold and arrived before the time threshold are dropped,
+ * the rest are held until the next upload.
+ */
+class LocationBuffer {
+
+    static final float DEFAULT_MIN_DISTANCE_METERS = 50f;
+    static final long DEFAULT_MIN_INTERVAL_MS = 10 * 60 * 1000; // 10 minutes
+    private static final int MAX_BUFFERED_POINTS = 50;
+
+    private final float minDistanceMeters;
+    private final long minIntervalMs;
+    private final List<LocationPoint> pending = new ArrayList<>();
+    private Location lastAccepted;
+
+    LocationBuffer() {
+        this(DEFAULT_MIN_DISTANCE_METERS, DEFAULT_MIN_INTERVAL_MS);
+    }
+
+    LocationBuffer(float minDistanceMeters, long minIntervalMs) {
+        this.minDistanceMeters = minDistanceMeters;
+        this.minIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * @return true if the fix was kept for upload
+     */
+    synchronized boolean offer(Location location) {
+        if (lastAccepted != null) {
+            boolean movedEnough = lastAccepted.distanceTo(location) >= minDistanceMeters;
+            boolean waitedEnough = location.getTime() - lastAccepted.getTime() >= minIntervalMs;
+            if (!movedEnough && !waitedEnough) {
+                return false;
+            }
+        }
+
+        lastAccepted = new Location(location);
+        if (pending.size() == MAX_BUFFERED_POINTS) {
+            pending.remove(0);
+        }
+        pending.add(new LocationPoint(location.getLatitude(), location.getLongitude(), location.getTime()));
+        return true;
+    }
+
+    /**
+     * Take every buffered fix, leaving the buffer empty
+     */
+    synchronized List<LocationPoint> drain() {
+        List<LocationPoint> points = new ArrayList<>(pending);
+        pending.clear();
+        return points;
+    }
+}
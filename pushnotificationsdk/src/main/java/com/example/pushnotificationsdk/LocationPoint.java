@@ -0,0 +1,28 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * A single timestamped location fix sent as part of a batch update
+ */
+public class LocationPoint {
+    private double lat;
+    private double lng;
+    private long timestamp;
+
+    public LocationPoint(double lat, double lng, long timestamp) {
+        this.lat = lat;
+        this.lng = lng;
+        this.timestamp = timestamp;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public double getLng() {
+        return lng;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
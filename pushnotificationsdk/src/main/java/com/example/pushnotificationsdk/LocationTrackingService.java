@@ -25,6 +25,8 @@ import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.location.Priority;
 
+import java.util.List;
+
 /**
  * Background service for continuous location tracking
  */
@@ -39,6 +41,7 @@ public class LocationTrackingService extends Service {
     private LocationCallback locationCallback;
     private LocationRequest locationRequest;
     private NotificationManager notificationManager;
+    private final LocationBuffer locationBuffer = new LocationBuffer();
 
     @Override
     public void onCreate() {
@@ -120,12 +123,13 @@ public class LocationTrackingService extends Service {
                     return;
                 }
 
+                // FusedLocationProvider may deliver a whole batch per wake-up - buffer it and upload once
                 for (Location location : locationResult.getLocations()) {
-                    if (location != null) {
+                    if (location != null && locationBuffer.offer(location)) {
                         Log.d(TAG, "📍 New location: " + location.getLatitude() + ", " + location.getLongitude());
-                        updateLocationInDatabase(location.getLatitude(), location.getLongitude());
                     }
                 }
+                uploadBufferedLocations();
             }
         };
     }
@@ -154,7 +158,12 @@ public class LocationTrackingService extends Service {
         }
     }
 
-    private void updateLocationInDatabase(double latitude, double longitude) {
+    private void uploadBufferedLocations() {
+        List<LocationPoint> points = locationBuffer.drain();
+        if (points.isEmpty()) {
+            return;
+        }
+
         // Get current user from SDK
         UserInfo currentUser = PushNotificationManager.getInstance(this).getCurrentUser();
         if (currentUser == null) {
@@ -162,23 +171,13 @@ public class LocationTrackingService extends Service {
             return;
         }
 
-        // Create updated user info with new location
-        UserInfo updatedUser = new UserInfo(
-                currentUser.getUserId(),
-                currentUser.getGender(),
-                currentUser.getAge(),
-                currentUser.getInterests(),
-                latitude,
-                longitude
-        );
-
-        // Get the device token and update location in database (using efficient location-only endpoint)
+        // Get the device token and upload every buffered fix in a single request
         PushNotificationManager.getInstance(this).getToken(new PushNotificationManager.OnTokenReceivedListener() {
             @Override
             public void onTokenReceived(String token) {
                 PushNotificationManager.getInstance(LocationTrackingService.this)
-                        .updateUserLocation(token, latitude, longitude);
-                Log.d(TAG, "📍 Location updated in database: " + latitude + ", " + longitude);
+                        .updateUserLocations(token, points);
+                Log.d(TAG, "📍 Queued " + points.size() + " location(s) for upload");
             }
 
             @Override
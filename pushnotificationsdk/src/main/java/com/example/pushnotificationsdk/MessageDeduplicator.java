@@ -0,0 +1,90 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, persisted index of recently seen messages
+ * FCM may redeliver a message, and the same campaign can reach the device both through its token
+ * and through the app's topic. Each message is recorded under every key that identifies it
+ * (FCM message ID, campaign ID, collapse key + sent time); a message matching any recorded key
+ * is a duplicate. Lookups are in memory - the index is only read from disk once per process.
+ */
+class MessageDeduplicator {
+
+    private static final String PREFS_NAME = "PushSDKDedupPrefs";
+    private static final String KEYS_KEY = "seen_keys";
+    static final int CAPACITY = 512;
+    private static final String SEPARATOR = "\n";
+
+    private static volatile MessageDeduplicator instance;
+
+    private final SharedPreferences sharedPreferences;
+    // Access-ordered LRU: the oldest key is evicted once the index is full
+    private final LinkedHashMap<String, Boolean> seen = new LinkedHashMap<String, Boolean>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    static MessageDeduplicator get(Context context) {
+        MessageDeduplicator result = instance;
+        if (result == null) {
+            synchronized (MessageDeduplicator.class) {
+                if (instance == null) {
+                    instance = new MessageDeduplicator(context.getApplicationContext());
+                }
+                result = instance;
+            }
+        }
+        return result;
+    }
+
+    // Package-private for tests - everything else shares get()
+    MessageDeduplicator(Context context) {
+        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String stored = sharedPreferences.getString(KEYS_KEY, null);
+        if (stored != null && !stored.isEmpty()) {
+            for (String key : stored.split(SEPARATOR)) {
+                seen.put(key, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Record a message
+     * @param keys Identifying keys; null entries are ignored
+     * @return true if the message is new, false if any of its keys was seen before
+     */
+    synchronized boolean markIfNew(String... keys) {
+        for (String key : keys) {
+            if (key != null && seen.containsKey(key)) {
+                // Refresh all keys so an often-redelivered message stays in the index
+                for (String other : keys) {
+                    if (other != null) {
+                        seen.put(other, Boolean.TRUE);
+                    }
+                }
+                return false;
+            }
+        }
+
+        boolean added = false;
+        for (String key : keys) {
+            if (key != null) {
+                seen.put(key, Boolean.TRUE);
+                added = true;
+            }
+        }
+        if (added) {
+            // apply() writes in the background - the receive path never waits for the disk
+            sharedPreferences.edit().putString(KEYS_KEY, TextUtils.join(SEPARATOR, seen.keySet())).apply();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.pushnotificationsdk;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Receives the delete intent of SDK notifications and records the dismiss receipt
+ */
+public class NotificationDismissReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String[] campaignIds = intent.getStringArrayExtra(NotificationRenderer.EXTRA_CAMPAIGN_IDS);
+        if (campaignIds != null) {
+            PushNotificationManager.recordReceipt(context, ReceiptEvent.DISMISSED, campaignIds);
+        }
+    }
+}
@@ -13,7 +13,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.pushnotificationsdk_library.R;
 
-import java.util.List;
+import java.util.Collections;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -25,6 +25,8 @@ public class NotificationHistoryActivity extends AppCompatActivity {
     private ConstraintLayout rootLayout; // Add access to root layout
 
     private ImageButton backButton; // Add back button if needed
+    private NotificationLogAdapter adapter;
+    private NotificationHistoryPager pager;
     private static final String TAG = "History";
 
     @Override
@@ -43,6 +45,25 @@ public class NotificationHistoryActivity extends AppCompatActivity {
             finish(); // Close current activity
                 });
 
+        adapter = new NotificationLogAdapter(Collections.emptyList());
+        recyclerView.setAdapter(adapter);
+
+        // Show what is stored on the device as soon as the store is open - the server is only used to sync it
+        NotificationHistoryPager.storeExecutor.execute(() -> {
+            NotificationHistoryManager localHistory = NotificationHistoryManager.get(this);
+            runOnUiThread(() -> {
+                if (!isDestroyed()) {
+                    showLocalHistory(localHistory);
+                }
+            });
+        });
+    }
+
+    private void showLocalHistory(NotificationHistoryManager localHistory) {
+        pager = new NotificationHistoryPager(adapter, localHistory);
+        recyclerView.addOnScrollListener(pager);
+        pager.loadFirstPage();
+
         PushNotificationManager.getInstance(this).getToken(new PushNotificationManager.OnTokenReceivedListener() {
             @Override
             public void onTokenReceived(String token) {
@@ -58,11 +79,17 @@ public class NotificationHistoryActivity extends AppCompatActivity {
 
     private void checkIfRegistered(String token) {
         PushApiService service = ApiClient.getService();
-        service.getDeviceInfoByToken(token).enqueue(new Callback<UserInfoResponse>() {
+        CachedRead.load(cacheControl -> service.getDeviceInfoByToken(token, cacheControl), new Callback<UserInfoResponse>() {
+            private boolean historyRequested;
+
             @Override
             public void onResponse(Call<UserInfoResponse> call, Response<UserInfoResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    fetchHistory(token); // ✅ Registered - load history
+                    // May be delivered again after revalidation - history only needs syncing once
+                    if (!historyRequested) {
+                        historyRequested = true;
+                        pager.startSync(token); // ✅ Registered - sync history
+                    }
                 } else {
                     showUnregisteredWarning();
                 }
@@ -75,26 +102,6 @@ public class NotificationHistoryActivity extends AppCompatActivity {
         });
     }
 
-    private void fetchHistory(String token) {
-        PushApiService service = ApiClient.getService();
-        service.getNotificationHistory(token).enqueue(new Callback<List<NotificationLog>>() {
-            @Override
-            public void onResponse(Call<List<NotificationLog>> call, Response<List<NotificationLog>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    NotificationLogAdapter adapter = new NotificationLogAdapter(response.body());
-                    recyclerView.setAdapter(adapter);
-                } else {
-                    Log.e(TAG, "Response error: " + response.code());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<NotificationLog>> call, Throwable t) {
-                Log.e(TAG, "Request failed", t);
-            }
-        });
-    }
-
     private void showUnregisteredWarning() {
         TextView warningText = new TextView(this);
         warningText.setText("⚠️ המכשיר שלך אינו רשום לשירות ההתראות.");
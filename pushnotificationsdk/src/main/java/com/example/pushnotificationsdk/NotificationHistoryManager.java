@@ -2,45 +2,169 @@ package com.example.pushnotificationsdk;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import com.google.gson.Gson;
+import android.util.Log;
+
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
 
+/**
+ * Local notification history, newest first
+ * Messages are stored when they are displayed, so the history screen can render without the network.
+ * Server changes are merged in afterwards by HistorySync: a locally received message is replaced by
+ * its server log (matched by campaign ID), and entries deleted on the server are removed. Entries
+ * deleted here are remembered as tombstones so a later sync cannot bring them back.
+ *
+ * Entries live in an indexed SQLite store (NotificationStore), with a full-text index over title
+ * and body for search(); history kept by older SDK versions in SharedPreferences is moved there once.
+ */
 public class NotificationHistoryManager {
 
     private static final String PREFS_NAME = "NotificationHistoryPrefs";
     private static final String HISTORY_KEY = "notification_history";
+    private static final String TOMBSTONES_KEY = "tombstones";
+    static final String LOCAL_ID_PREFIX = "local:";
+    // getHistory() returns at most this many entries - use getPage() to go further back
+    private static final int HISTORY_LIMIT = 500;
+
+    private static volatile NotificationHistoryManager instance;
+
+    private final NotificationStore store;
 
-    private SharedPreferences sharedPreferences;
-    private Gson gson;
+    static NotificationHistoryManager get(Context context) {
+        NotificationHistoryManager result = instance;
+        if (result == null) {
+            synchronized (NotificationHistoryManager.class) {
+                if (instance == null) {
+                    instance = new NotificationHistoryManager(context.getApplicationContext());
+                }
+                result = instance;
+            }
+        }
+        return result;
+    }
 
     public NotificationHistoryManager(Context context) {
-        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        gson = new Gson();
+        store = NotificationStore.get(context);
+        migrateFromPreferences(context);
+    }
+
+    /**
+     * Create an entry for a message received on this device
+     * It gets a local ID until the server log for the same campaign replaces it.
+     */
+    static NotificationLog fromReceivedMessage(String title, String body, long sentTime, String campaignId) {
+        String sentAt = toSentAt(sentTime > 0 ? sentTime : System.currentTimeMillis());
+        String localKey = campaignId != null ? campaignId : sentAt + ":" + title;
+        return new NotificationLog(LOCAL_ID_PREFIX + localKey, title, body, null, sentAt, campaignId);
+    }
+
+    // Same ISO-8601 UTC form as the server's sentAt, so stored values sort by time
+    private static String toSentAt(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+
+    static boolean isLocalOnly(NotificationLog log) {
+        return log.getId() == null || log.getId().startsWith(LOCAL_ID_PREFIX);
     }
 
     public void addNotification(com.example.pushnotificationsdk.NotificationLog notificationLog) {
-        List<com.example.pushnotificationsdk.NotificationLog> history = getHistory();
-        history.add(notificationLog);
-        saveHistory(history);
+        if (notificationLog.getId() == null || notificationLog.getSentAt() == null) {
+            return;
+        }
+        store.insertIfAbsent(notificationLog);
     }
 
+    /**
+     * @return The most recent entries, newest first
+     */
     public List<com.example.pushnotificationsdk.NotificationLog> getHistory() {
+        return store.queryPage(null, HISTORY_LIMIT);
+    }
+
+    /**
+     * Page through the history, newest first
+     * @param after The last entry of the previous page, or null for the first page
+     * @param limit Maximum number of entries to return
+     */
+    public List<com.example.pushnotificationsdk.NotificationLog> getPage(NotificationLog after, int limit) {
+        return store.queryPage(after, limit);
+    }
+
+    /**
+     * Search titles and bodies, best matches first
+     * All words must match; the last word also matches as a prefix ("coup" finds "coupon").
+     * Runs on the local store only, so call it off the main thread for large histories.
+     * @param query Words to look for - case and accents are ignored
+     * @param offset Number of results to skip, for paging
+     * @param limit Maximum number of results to return
+     */
+    public List<com.example.pushnotificationsdk.NotificationLog> search(String query, int offset, int limit) {
+        return store.search(query, offset, limit);
+    }
+
+    /**
+     * Remove an entry the user deleted. The server delete is queued separately.
+     */
+    void remove(NotificationLog notificationLog) {
+        store.delete(notificationLog, !isLocalOnly(notificationLog));
+    }
+
+    /**
+     * Apply server changes received by HistorySync
+     * @return Server IDs of entries deleted locally that the server still has - their deletes should be queued
+     */
+    List<String> applySync(List<NotificationLog> items, List<String> deletedIds) {
+        return store.applySync(items, deletedIds);
+    }
+
+    // The server could not sync incrementally - drop server entries and the cursor before syncing from scratch
+    void resetSync() {
+        store.clearSynced(LOCAL_ID_PREFIX);
+    }
+
+    String getSyncCursor() {
+        return store.getSyncCursor();
+    }
+
+    void setSyncCursor(String syncCursor) {
+        store.setSyncCursor(syncCursor);
+    }
+
+    /**
+     * Apply the history retention policy - called by the compaction job
+     * @return Number of entries removed
+     */
+    int compact(RetentionPolicy policy) {
+        String cutoff = policy.getMaxAgeMillis() > 0
+                ? toSentAt(System.currentTimeMillis() - policy.getMaxAgeMillis())
+                : null;
+        return store.compact(cutoff, policy.getMaxEntries(), policy.getMaxBytes());
+    }
+
+    // Older SDK versions kept the whole history as one JSON string - move it into the store once
+    private void migrateFromPreferences(Context context) {
+        SharedPreferences sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         String json = sharedPreferences.getString(HISTORY_KEY, null);
         if (json == null) {
-            return new ArrayList<>();
+            return;
         }
-        Type type = new TypeToken<List<com.example.pushnotificationsdk.NotificationLog>>(){}.getType();
-        return gson.fromJson(json, type);
-    }
-
-    private void saveHistory(List<com.example.pushnotificationsdk.NotificationLog> history) {
-        String json = gson.toJson(history);
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putString(HISTORY_KEY, json);
-        editor.apply();
+        try {
+            Type type = new TypeToken<List<com.example.pushnotificationsdk.NotificationLog>>(){}.getType();
+            List<NotificationLog> stored = JsonCodecs.gson().fromJson(json, type);
+            if (stored != null) {
+                store.insertAll(stored);
+            }
+        } catch (RuntimeException e) {
+            Log.e("PushSDK", "❌ Discarding unreadable notification history", e);
+        }
+        sharedPreferences.edit().remove(HISTORY_KEY).remove(TOMBSTONES_KEY).apply();
     }
 }
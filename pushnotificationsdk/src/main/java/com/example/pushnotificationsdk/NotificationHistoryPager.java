@@ -0,0 +1,139 @@
+package com.example.pushnotificationsdk;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads notification history page by page and prefetches the next page
+ * while the user is still a few rows away from the end of the list
+ * Pages always come from the local store, so paging works offline and before the device's
+ * registration is known. Once it is, startSync() brings the store up to date with an incremental
+ * server sync, and the visible rows are refreshed if it changed.
+ * Store queries run on a background thread and their pages are posted back to the list; only
+ * the main thread touches the paging state.
+ */
+class NotificationHistoryPager extends RecyclerView.OnScrollListener {
+
+    private static final String TAG = "History";
+    static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5;
+
+    // One sync at a time across screens - a second one would fetch the same changes
+    private static final ExecutorService syncExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "PushSDK-HistorySync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Store reads - opening the store (which may migrate history kept by older SDK versions) and page queries
+    static final ExecutorService storeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "PushSDK-HistoryStore");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final NotificationLogAdapter adapter;
+    private final NotificationHistoryManager localHistory;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private boolean endReached;
+    // A page is being read - scroll events until it arrives must not request it again
+    private boolean loading;
+    // Bumped when the whole list is reloaded - pages read before that are dropped
+    private int generation;
+
+    NotificationHistoryPager(NotificationLogAdapter adapter, NotificationHistoryManager localHistory) {
+        this.adapter = adapter;
+        this.localHistory = localHistory;
+    }
+
+    /**
+     * Show the first local page - no network
+     */
+    void loadFirstPage() {
+        load(null, PAGE_SIZE, false);
+    }
+
+    /**
+     * Sync the store with the server in the background - call once the device is known to be registered
+     */
+    void startSync(String token) {
+        HistorySync sync = new HistorySync(localHistory);
+        syncExecutor.execute(() -> {
+            boolean changed;
+            try {
+                changed = sync.sync(token);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Sync failed", e);
+                return;
+            }
+            if (changed) {
+                mainHandler.post(this::refresh);
+            }
+        });
+    }
+
+    void loadNextPage() {
+        if (endReached || loading) {
+            return;
+        }
+        // Keyset-paged from the store - no network
+        load(adapter.getLastLog(), PAGE_SIZE, true);
+    }
+
+    // Re-read the rows shown so far - entries may have been added, replaced or removed by the sync
+    private void refresh() {
+        load(null, Math.max(PAGE_SIZE, adapter.getLoadedCount()), false);
+    }
+
+    private void load(NotificationLog after, int limit, boolean append) {
+        int requested = append ? generation : ++generation;
+        loading = true;
+        storeExecutor.execute(() -> {
+            List<NotificationLog> page;
+            try {
+                page = localHistory.getPage(after, limit);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Reading history page failed", e);
+                page = null;
+            }
+            List<NotificationLog> result = page;
+            mainHandler.post(() -> {
+                if (requested != generation) {
+                    return;
+                }
+                loading = false;
+                if (result == null) {
+                    // Not at the end - the next scroll tries again
+                    return;
+                }
+                if (append) {
+                    adapter.appendLogs(result);
+                } else {
+                    adapter.setLogs(result);
+                }
+                endReached = result.size() < limit;
+            });
+        });
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy <= 0 || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Collision-free notification IDs that survive process restarts
+ * IDs are handed out from blocks reserved in SharedPreferences, so the disk is touched
+ * once per block rather than once per notification.
+ */
+class NotificationIds {
+
+    private static final String PREFS_NAME = "PushSDKNotificationIdPrefs";
+    private static final String NEXT_BLOCK_KEY = "next_block";
+    private static final int BLOCK_SIZE = 256;
+    // Leave low IDs to the host app
+    static final int FIRST_ID = 10_000;
+    // Fixed IDs just below FIRST_ID, for notifications that are updated in place
+    static final int SUMMARY_ID = FIRST_ID - 1;
+    static final int COLLAPSED_ID = FIRST_ID - 2;
+
+    private final SharedPreferences sharedPreferences;
+    private int next;
+    private int blockEnd;
+
+    NotificationIds(Context context) {
+        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        next = sharedPreferences.getInt(NEXT_BLOCK_KEY, FIRST_ID);
+        blockEnd = next;
+    }
+
+    synchronized int next() {
+        if (next >= blockEnd) {
+            if (next < FIRST_ID || next > Integer.MAX_VALUE - BLOCK_SIZE) {
+                next = FIRST_ID;
+            }
+            blockEnd = next + BLOCK_SIZE;
+            sharedPreferences.edit().putInt(NEXT_BLOCK_KEY, blockEnd).apply();
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.SystemClock;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Images and icons for rich notifications, shared across messages
+ * Decoded bitmaps are kept in a memory LRU and the downloaded files in a size-bounded disk LRU,
+ * so a campaign image is fetched once per device rather than once per message or wake-up.
+ * Downloads run on the caller's (background) thread and are cut off at a hard deadline.
+ */
+class NotificationImageCache {
+
+    private static final String TAG = "PushNotificationService";
+    private static final String DISK_CACHE_DIR = "push_sdk_images";
+    private static final int MEMORY_CACHE_BYTES = 4 * 1024 * 1024;
+    private static final long DISK_CACHE_BYTES = 10 * 1024 * 1024;
+    // Larger downloads are not worth the time or memory for a notification
+    private static final long MAX_DOWNLOAD_BYTES = 1024 * 1024;
+    // BigPictureStyle is shown at most ~450dp wide - decode no larger than needed
+    private static final int MAX_IMAGE_PX = 1024;
+
+    private static volatile NotificationImageCache instance;
+
+    private final File diskCacheDir;
+    private final LruCache<String, Bitmap> memoryCache = new LruCache<String, Bitmap>(MEMORY_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getAllocationByteCount();
+        }
+    };
+
+    static NotificationImageCache get(Context context) {
+        NotificationImageCache result = instance;
+        if (result == null) {
+            synchronized (NotificationImageCache.class) {
+                if (instance == null) {
+                    instance = new NotificationImageCache(context.getApplicationContext());
+                }
+                result = instance;
+            }
+        }
+        return result;
+    }
+
+    private NotificationImageCache(Context context) {
+        diskCacheDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+    }
+
+    /**
+     * Get an image from the cache, downloading it if needed
+     * @param deadlineAt SystemClock.elapsedRealtime() by which the image must be available
+     * @return The image, or null if it could not be loaded before the deadline
+     */
+    Bitmap load(String url, long deadlineAt) {
+        if (url == null || !url.startsWith("https://")) {
+            return null;
+        }
+        String key = ByteString.encodeUtf8(url).sha256().hex();
+
+        Bitmap bitmap = memoryCache.get(key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        File file = new File(diskCacheDir, key);
+        if (file.exists()) {
+            bitmap = decode(file);
+            if (bitmap != null) {
+                // Keep recently used files at the back of the eviction order
+                file.setLastModified(System.currentTimeMillis());
+                memoryCache.put(key, bitmap);
+                return bitmap;
+            }
+            file.delete();
+        }
+
+        long remaining = deadlineAt - SystemClock.elapsedRealtime();
+        if (remaining <= 0) {
+            return null;
+        }
+        try {
+            if (!download(url, file, remaining)) {
+                return null;
+            }
+        } catch (IOException e) {
+            SdkLog.w(TAG, "⚠️ Image download failed: " + e.getMessage());
+            file.delete();
+            return null;
+        }
+
+        bitmap = decode(file);
+        if (bitmap == null) {
+            file.delete();
+            return null;
+        }
+        memoryCache.put(key, bitmap);
+        trimDiskCache();
+        return bitmap;
+    }
+
+    private boolean download(String url, File target, long timeoutMillis) throws IOException {
+        Request request = new Request.Builder().url(url).build();
+        Call call = ApiClient.getMediaHttpClient().newCall(request);
+        // Covers DNS, connect and the whole body - the message is shown as text if we run out of time
+        call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        try (Response response = call.execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                SdkLog.w(TAG, "⚠️ Image download failed: " + response.code());
+                return false;
+            }
+            if (body.contentLength() > MAX_DOWNLOAD_BYTES) {
+                SdkLog.w(TAG, "⚠️ Image too large (" + body.contentLength() + " bytes)");
+                return false;
+            }
+
+            Buffer buffer = new Buffer();
+            while (body.source().read(buffer, 8192) != -1) {
+                if (buffer.size() > MAX_DOWNLOAD_BYTES) {
+                    SdkLog.w(TAG, "⚠️ Image too large - download stopped");
+                    return false;
+                }
+            }
+
+            if (!diskCacheDir.exists() && !diskCacheDir.mkdirs()) {
+                throw new IOException("Cannot create " + diskCacheDir);
+            }
+            // Write to a temporary file first so a concurrent reader never sees a partial image
+            File temp = new File(diskCacheDir, target.getName() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                buffer.writeTo(out);
+            }
+            return temp.renameTo(target);
+        }
+    }
+
+    private Bitmap decode(File file) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            return null;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = 1;
+        while (Math.max(bounds.outWidth, bounds.outHeight) / (options.inSampleSize * 2) >= MAX_IMAGE_PX) {
+            options.inSampleSize *= 2;
+        }
+        try {
+            return BitmapFactory.decodeFile(file.getPath(), options);
+        } catch (OutOfMemoryError e) {
+            SdkLog.w(TAG, "⚠️ Could not decode cached image: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Delete least recently used files until the cache fits its budget
+    private synchronized void trimDiskCache() {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= DISK_CACHE_BYTES) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (total <= DISK_CACHE_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+}
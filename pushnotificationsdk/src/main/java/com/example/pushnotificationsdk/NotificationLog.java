@@ -14,6 +14,29 @@ public class NotificationLog {
     private String token;
     private Map<String, Object> filters;
     private String sentAt;
+    private String campaignId;
+
+    public NotificationLog() {
+    }
+
+    /**
+     * Entry without token/filters - those fields are not needed to display history
+     */
+    public NotificationLog(String id, String title, String body, String type, String sentAt) {
+        this(id, title, body, type, sentAt, null);
+    }
+
+    /**
+     * @param campaignId The send this entry belongs to - links a locally stored message to its server log
+     */
+    public NotificationLog(String id, String title, String body, String type, String sentAt, String campaignId) {
+        this.id = id;
+        this.title = title;
+        this.body = body;
+        this.type = type;
+        this.sentAt = sentAt;
+        this.campaignId = campaignId;
+    }
 
     public String getId() {
         return id;
@@ -42,4 +65,8 @@ public class NotificationLog {
     public String getSentAt() {
         return sentAt;
     }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
 }
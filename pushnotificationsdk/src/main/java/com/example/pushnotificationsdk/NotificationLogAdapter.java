@@ -7,74 +7,148 @@ import android.view.ViewGroup;
 import android.widget.ImageButton;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.pushnotificationsdk_library.R;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+/**
+ * History rows, diffed on a background thread
+ * Every update is submitted as a new list; only rows whose entry changed are rebound. Rows have
+ * stable IDs derived from NotificationLog.getId(), and binding allocates nothing.
+ */
+public class NotificationLogAdapter extends ListAdapter<NotificationLog, NotificationLogAdapter.ViewHolder> {
 
-public class NotificationLogAdapter extends RecyclerView.Adapter<NotificationLogAdapter.ViewHolder> {
+    private static final DiffUtil.ItemCallback<NotificationLog> DIFF_CALLBACK = new DiffUtil.ItemCallback<NotificationLog>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull NotificationLog oldItem, @NonNull NotificationLog newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull NotificationLog oldItem, @NonNull NotificationLog newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getBody(), newItem.getBody())
+                    && Objects.equals(oldItem.getSentAt(), newItem.getSentAt());
+        }
+    };
 
-    private List<NotificationLog> logs;
+    // Stable row IDs, assigned once per entry ID for the adapter's lifetime
+    private final Map<String, Long> rowIds = new HashMap<>();
+    // Latest submitted list - getCurrentList() lags behind it while a diff is running
+    private List<NotificationLog> logs = Collections.emptyList();
 
     public NotificationLogAdapter(List<NotificationLog> logs) {
-        this.logs = logs;
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+        setLogs(logs);
+    }
+
+    /**
+     * Replace the whole list (e.g. when the first page is reloaded)
+     */
+    public void setLogs(List<NotificationLog> newLogs) {
+        logs = new ArrayList<>(newLogs);
+        submitList(logs);
+    }
+
+    /**
+     * Add the next page to the end of the list
+     */
+    public void appendLogs(List<NotificationLog> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        List<NotificationLog> newLogs = new ArrayList<>(logs.size() + page.size());
+        newLogs.addAll(logs);
+        newLogs.addAll(page);
+        logs = newLogs;
+        submitList(logs);
+    }
+
+    /**
+     * @return The last entry in the list, or null if it is empty - includes pages still being diffed
+     */
+    NotificationLog getLastLog() {
+        return logs.isEmpty() ? null : logs.get(logs.size() - 1);
+    }
+
+    /**
+     * @return Number of entries loaded - includes pages still being diffed
+     */
+    int getLoadedCount() {
+        return logs.size();
     }
 
     @Override
-    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+    public long getItemId(int position) {
+        String id = getItem(position).getId();
+        Long rowId = rowIds.get(id);
+        if (rowId == null) {
+            rowId = (long) rowIds.size();
+            rowIds.put(id, rowId);
+        }
+        return rowId;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_notification_log, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        // One listener per row view - it looks up the entry the row shows when clicked
+        holder.deleteButton.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                delete(v, getItem(position));
+            }
+        });
+        return holder;
     }
 
     @Override
-    public void onBindViewHolder(ViewHolder holder, int position) {
-        NotificationLog log = logs.get(position);
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        NotificationLog log = getItem(position);
         holder.titleText.setText(log.getTitle());
         holder.bodyText.setText(log.getBody());
-        holder.sentAtText.setText("Sent at: " + log.getSentAt());
-
-        holder.deleteButton.setOnClickListener(v -> {
-            String logId = log.getId(); // Ensure NotificationLog includes the _id field
-            Log.d("Adapter", "Delete request sent for ID: " + logId);
-            PushApiService service = ApiClient.getService();
-            service.deleteNotification(logId).enqueue(new Callback<Void>() {
-                @Override
-                public void onResponse(Call<Void> call, Response<Void> response) {
-                    if (response.isSuccessful()) {
-                        int pos = holder.getAdapterPosition();
-                        logs.remove(pos);
-                        notifyItemRemoved(pos);
-                        notifyItemRangeChanged(pos, logs.size());
-                        Log.d("Adapter", "Notification deleted successfully");
-                    } else {
-                        Log.e("Adapter", "Delete failed: " + response.code());
-                    }
-                }
-
-                @Override
-                public void onFailure(Call<Void> call, Throwable t) {
-                    Log.e("Adapter", "Delete request failed", t);
-                }
-            });
-        });
+        holder.bindSentAt(log.getSentAt());
     }
 
-    @Override
-    public int getItemCount() {
-        return logs.size();
+    private void delete(View view, NotificationLog log) {
+        String logId = log.getId();
+        Log.d("Adapter", "Delete queued for ID: " + logId);
+        NotificationHistoryManager.get(view.getContext()).remove(log);
+        // The SDK outbox delivers the delete once the network allows, so the row goes away right now.
+        // Entries not yet known to the server are deleted there once the history sync finds them.
+        if (!NotificationHistoryManager.isLocalOnly(log)) {
+            PushNotificationManager.getInstance().deleteNotification(logId);
+        }
+        List<NotificationLog> newLogs = new ArrayList<>(logs);
+        if (newLogs.remove(log)) {
+            logs = newLogs;
+            submitList(logs);
+        }
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
+        private static final String SENT_AT_PREFIX = "Sent at: ";
+
         public TextView titleText;
         public TextView bodyText;
         public TextView sentAtText;
         public ImageButton deleteButton;
+        // Reused for "Sent at: ..." so binding does not build a new string per row
+        private char[] sentAtChars = new char[64];
 
         public ViewHolder(View view) {
             super(view);
@@ -83,5 +157,16 @@ public class NotificationLogAdapter extends RecyclerView.Adapter<NotificationLog
             sentAtText = view.findViewById(R.id.text_sent_at);
             deleteButton = view.findViewById(R.id.button_delete);
         }
+
+        void bindSentAt(String sentAt) {
+            String value = sentAt != null ? sentAt : "null";
+            int length = SENT_AT_PREFIX.length() + value.length();
+            if (length > sentAtChars.length) {
+                sentAtChars = new char[length];
+            }
+            SENT_AT_PREFIX.getChars(0, SENT_AT_PREFIX.length(), sentAtChars, 0);
+            value.getChars(0, value.length(), sentAtChars, SENT_AT_PREFIX.length());
+            sentAtText.setText(sentAtChars, 0, length);
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.example.pushnotificationsdk;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Bundle;
+
+/**
+ * Invisible activity behind every notification's content intent
+ * Records the open receipt, then starts the host app's launcher activity. An activity
+ * (rather than a broadcast receiver) is used because Android 12+ blocks notification
+ * trampolines that start activities from receivers or services.
+ */
+public class NotificationOpenActivity extends Activity {
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        String[] campaignIds = getIntent().getStringArrayExtra(NotificationRenderer.EXTRA_CAMPAIGN_IDS);
+        if (campaignIds != null) {
+            PushNotificationManager.recordReceipt(this, ReceiptEvent.OPENED, campaignIds);
+        }
+
+        Intent launchIntent = getPackageManager().getLaunchIntentForPackage(getPackageName());
+        if (launchIntent != null) {
+            launchIntent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+            startActivity(launchIntent);
+        }
+        finish();
+    }
+}
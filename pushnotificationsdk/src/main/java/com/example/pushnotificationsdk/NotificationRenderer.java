@@ -0,0 +1,324 @@
+package com.example.pushnotificationsdk;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Build;
+import android.os.SystemClock;
+
+import androidx.core.app.ActivityCompat;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Posts received messages as system notifications
+ * Everything that does not change between messages - the channel, the launch intent and the
+ * builder with its static settings - is created once per process, so showing a message only
+ * sets its title, text and time.
+ *
+ * Bursts are handled on-device: messages with a collapse key replace each other, once several
+ * messages arrive close together they are grouped under an InboxStyle summary, and a per-channel
+ * token bucket decides which messages may make a sound - the rest are posted silently or only
+ * folded into the summary.
+ *
+ * Messages that carry a campaign ID get their own content and delete intents, routed through
+ * NotificationOpenActivity and NotificationDismissReceiver so opens and dismissals are recorded.
+ */
+class NotificationRenderer {
+
+    private static final String TAG = "PushNotificationService";
+    static final String CHANNEL_ID = "push_notification_channel";
+    static final String EXTRA_CAMPAIGN_IDS = "com.example.pushnotificationsdk.CAMPAIGN_IDS";
+    private static final long[] VIBRATION_PATTERN = {0, 250, 250, 250};
+    private static final int LIGHT_COLOR = 0xFF0000FF; // Blue light
+
+    private static final String GROUP_KEY = "com.example.pushnotificationsdk.MESSAGES";
+    private static final int SUMMARY_ID = NotificationIds.SUMMARY_ID;
+    private static final int COLLAPSED_ID = NotificationIds.COLLAPSED_ID;
+    // Group once this many messages arrived within the burst window
+    private static final int GROUP_THRESHOLD = 4;
+    private static final long BURST_WINDOW_MS = 10 * 60 * 1000;
+    private static final int SUMMARY_LINES = 5;
+    private static final int MAX_RECENT = 100;
+    // Alerts (sound/vibration) per channel: 3 at once, then one every 20 seconds
+    private static final int ALERT_BURST = 3;
+    private static final long ALERT_REFILL_MS = 20 * 1000;
+
+    private static volatile NotificationRenderer instance;
+
+    private final Context context;
+    private final NotificationManagerCompat notificationManager;
+    private final NotificationIds notificationIds;
+    private final PendingIntent launchIntent;
+    private final NotificationCompat.Builder template;
+    private final NotificationCompat.Builder summaryTemplate;
+    private final Map<String, TokenBucket> alertBuckets = new HashMap<>();
+    // Recent messages in the burst window, newest last
+    private final ArrayDeque<RecentMessage> recentMessages = new ArrayDeque<>();
+
+    private static class RecentMessage {
+        final long receivedAt;
+        final String title;
+        final String body;
+        final String campaignId;
+        // Only shown through the summary, so the summary's open/dismiss applies to it
+        boolean folded;
+
+        RecentMessage(long receivedAt, String title, String body, String campaignId) {
+            this.receivedAt = receivedAt;
+            this.title = title;
+            this.body = body;
+            this.campaignId = campaignId;
+        }
+    }
+
+    static NotificationRenderer get(Context context) {
+        NotificationRenderer result = instance;
+        if (result == null) {
+            synchronized (NotificationRenderer.class) {
+                if (instance == null) {
+                    instance = new NotificationRenderer(context.getApplicationContext());
+                }
+                result = instance;
+            }
+        }
+        return result;
+    }
+
+    private NotificationRenderer(Context context) {
+        this.context = context;
+        this.notificationManager = NotificationManagerCompat.from(context);
+        this.notificationIds = new NotificationIds(context);
+        createNotificationChannel();
+
+        this.launchIntent = createLaunchIntent();
+        this.template = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_dialog_info)  // Small icon for the notification
+                .setPriority(NotificationCompat.PRIORITY_MAX)  // Maximum priority for immediate display
+                .setCategory(NotificationCompat.CATEGORY_MESSAGE)  // Message category
+                .setDefaults(NotificationCompat.DEFAULT_ALL)  // Default sound, vibration, lights
+                .setVibrate(VIBRATION_PATTERN)  // Custom vibration pattern
+                .setLights(LIGHT_COLOR, 300, 100)
+                .setAutoCancel(true)  // The notification will be dismissed when clicked
+                .setOnlyAlertOnce(false)  // Always alert, even for updates
+                .setShowWhen(true)  // Show timestamp
+                .setTimeoutAfter(0)  // Never timeout
+                .setFullScreenIntent(launchIntent, false)  // High priority for immediate display
+                .setGroup(GROUP_KEY);
+
+        this.summaryTemplate = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_dialog_info)
+                .setCategory(NotificationCompat.CATEGORY_MESSAGE)
+                .setAutoCancel(true)
+                .setGroup(GROUP_KEY)
+                .setGroupSummary(true)
+                // Children that were allowed to alert already did - the summary never makes a sound
+                .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_CHILDREN)
+                .setSilent(true);
+    }
+
+    /**
+     * Post a notification
+     * @param collapseKey Messages with the same key replace each other (null for none)
+     * @param campaignId Used to report opens and dismissals (null if the message has none)
+     * @param image Shown expanded with BigPictureStyle (null for a text notification)
+     * @param icon Large icon (null for none)
+     * @return The notification ID, or -1 if notifications cannot be posted
+     */
+    synchronized int show(String title, String body, String collapseKey, String campaignId,
+                          Bitmap image, Bitmap icon) {
+        if (!canPostNotifications()) {
+            SdkLog.e(TAG, "❌ POST_NOTIFICATIONS permission not granted!");
+            return -1;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        boolean alert = alertBucket(CHANNEL_ID, now).tryAcquire(now);
+        RecentMessage message = recordRecent(now, title, body, campaignId);
+        boolean grouped = recentMessages.size() >= GROUP_THRESHOLD;
+
+        if (grouped && !alert && collapseKey == null) {
+            // Mid-burst: fold the message into the summary instead of posting (and alerting for) another one
+            message.folded = true;
+            postSummary();
+            SdkLog.d(TAG, "🗂️ Burst - message folded into summary");
+            return SUMMARY_ID;
+        }
+
+        template.setContentTitle(title != null ? title : "Notification")
+                .setContentText(body != null ? body : "")
+                .setWhen(System.currentTimeMillis())
+                .setSilent(!alert)
+                .setPriority(alert ? NotificationCompat.PRIORITY_MAX : NotificationCompat.PRIORITY_DEFAULT)
+                .setLargeIcon(icon)
+                // The template is shared - clear the previous message's picture when this one has none
+                .setStyle(image != null ? new NotificationCompat.BigPictureStyle()
+                        .bigPicture(image)
+                        .bigLargeIcon((Bitmap) null)
+                        .setSummaryText(body) : null);
+
+        int notificationId = collapseKey != null ? COLLAPSED_ID : notificationIds.next();
+        String intentKey = collapseKey != null ? "c:" + collapseKey : String.valueOf(notificationId);
+        String[] campaignIds = campaignId != null ? new String[]{campaignId} : null;
+        template.setContentIntent(openIntent(intentKey, campaignIds))
+                .setDeleteIntent(dismissIntent(intentKey, campaignIds));
+
+        if (collapseKey != null) {
+            // Same tag + ID replaces the previous message with this collapse key
+            notificationManager.notify(collapseKey, notificationId, template.build());
+        } else {
+            notificationManager.notify(notificationId, template.build());
+        }
+
+        if (grouped) {
+            postSummary();
+        }
+        return notificationId;
+    }
+
+    private TokenBucket alertBucket(String channelId, long now) {
+        TokenBucket bucket = alertBuckets.get(channelId);
+        if (bucket == null) {
+            bucket = new TokenBucket(ALERT_BURST, ALERT_REFILL_MS, now);
+            alertBuckets.put(channelId, bucket);
+        }
+        return bucket;
+    }
+
+    // Adds the message to the burst window, dropping messages that fell out of it
+    private RecentMessage recordRecent(long now, String title, String body, String campaignId) {
+        Iterator<RecentMessage> iterator = recentMessages.iterator();
+        while (iterator.hasNext() && now - iterator.next().receivedAt > BURST_WINDOW_MS) {
+            iterator.remove();
+        }
+        RecentMessage message = new RecentMessage(now, title, body, campaignId);
+        recentMessages.addLast(message);
+        if (recentMessages.size() > MAX_RECENT) {
+            recentMessages.removeFirst();
+        }
+        return message;
+    }
+
+    private void postSummary() {
+        int count = recentMessages.size();
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle()
+                .setSummaryText(count + " new notifications");
+        Iterator<RecentMessage> newestFirst = recentMessages.descendingIterator();
+        for (int i = 0; i < SUMMARY_LINES && newestFirst.hasNext(); i++) {
+            RecentMessage message = newestFirst.next();
+            style.addLine(message.title != null ? message.title + ": " + message.body : message.body);
+        }
+        if (count > SUMMARY_LINES) {
+            style.addLine("+" + (count - SUMMARY_LINES) + " more");
+        }
+
+        List<String> foldedCampaigns = new ArrayList<>();
+        for (RecentMessage message : recentMessages) {
+            if (message.folded && message.campaignId != null) {
+                foldedCampaigns.add(message.campaignId);
+            }
+        }
+        String[] campaignIds = foldedCampaigns.isEmpty() ? null : foldedCampaigns.toArray(new String[0]);
+
+        summaryTemplate.setContentTitle(count + " new notifications")
+                .setContentText(recentMessages.peekLast().title)
+                .setWhen(System.currentTimeMillis())
+                .setNumber(count)
+                .setStyle(style)
+                .setContentIntent(openIntent("summary", campaignIds))
+                .setDeleteIntent(dismissIntent("summary", campaignIds));
+        notificationManager.notify(SUMMARY_ID, summaryTemplate.build());
+    }
+
+    private boolean canPostNotifications() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            return ActivityCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS)
+                    == PackageManager.PERMISSION_GRANTED;
+        }
+        return notificationManager.areNotificationsEnabled();
+    }
+
+    // Opens the app, recording an open receipt for the given campaigns first
+    private PendingIntent openIntent(String key, String[] campaignIds) {
+        if (campaignIds == null) {
+            return launchIntent;
+        }
+        Intent intent = new Intent(context, NotificationOpenActivity.class)
+                .setData(trackingUri(key))
+                .putExtra(EXTRA_CAMPAIGN_IDS, campaignIds)
+                .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        return PendingIntent.getActivity(context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private PendingIntent dismissIntent(String key, String[] campaignIds) {
+        if (campaignIds == null) {
+            return null;
+        }
+        Intent intent = new Intent(context, NotificationDismissReceiver.class)
+                .setData(trackingUri(key))
+                .putExtra(EXTRA_CAMPAIGN_IDS, campaignIds);
+        return PendingIntent.getBroadcast(context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    // PendingIntents are matched by their intent's data, not extras - one URI per notification keeps them apart
+    private Uri trackingUri(String key) {
+        return Uri.fromParts("pushsdk", key, null);
+    }
+
+    private PendingIntent createLaunchIntent() {
+        // Intent to open the app when the user clicks on the notification
+        Intent intent = context.getPackageManager().getLaunchIntentForPackage(context.getPackageName());
+        if (intent == null) {
+            intent = new Intent();
+            intent.setPackage(context.getPackageName());
+        }
+        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        return PendingIntent.getActivity(context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private void createNotificationChannel() {
+        // Creating a notification channel for Android 8 and above with maximum priority
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID,
+                    "Push Notification Channel", NotificationManager.IMPORTANCE_HIGH);
+            channel.setDescription("Channel for push notifications");
+
+            // Enable all notification features for immediate delivery
+            channel.enableLights(true);
+            channel.setLightColor(LIGHT_COLOR);
+            channel.enableVibration(true);
+            channel.setVibrationPattern(VIBRATION_PATTERN);
+            channel.setShowBadge(true);
+            channel.setLockscreenVisibility(NotificationCompat.VISIBILITY_PUBLIC);
+            channel.setBypassDnd(true); // Bypass Do Not Disturb
+            channel.setSound(android.provider.Settings.System.DEFAULT_NOTIFICATION_URI, null);
+
+            // Enable bubbles and other high-priority features
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                channel.setAllowBubbles(true);
+            }
+
+            NotificationManager manager = context.getSystemService(NotificationManager.class);
+            if (manager != null) {
+                manager.createNotificationChannel(channel);
+                SdkLog.d(TAG, "✅ High-priority notification channel created");
+            }
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package com.example.pushnotificationsdk;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SQLite storage behind NotificationHistoryManager
+ * Entries are keyed by ID with secondary indexes on (sent_at, id) for keyset paging and on
+ * campaign_id for matching local entries to server logs, so inserts and lookups cost
+ * O(log n) no matter how large the history grows. A hard cap is enforced on insert by deleting
+ * a rowid range, which never scans the table; the app's retention policy is applied by compact().
+ *
+ * Title and body are also kept in an inverted index (term -> rows), so search only reads the
+ * posting lists of the query's terms instead of every entry.
+ */
+class NotificationStore extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "push_sdk_history.db";
+    // 2: search index, 3: sync state
+    private static final int DATABASE_VERSION = 3;
+
+    private static final String TABLE_NOTIFICATIONS = "notifications";
+    private static final String TABLE_TOMBSTONES = "tombstones";
+    private static final String TABLE_TERMS = "terms";
+    private static final String TABLE_SYNC_STATE = "sync_state";
+
+    private static final String COLUMN_ROW_ID = "row_id";
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_CAMPAIGN_ID = "campaign_id";
+    private static final String COLUMN_TITLE = "title";
+    private static final String COLUMN_BODY = "body";
+    private static final String COLUMN_TYPE = "type";
+    private static final String COLUMN_SENT_AT = "sent_at";
+    private static final String COLUMN_KEY = "key";
+    private static final String COLUMN_CREATED_AT = "created_at";
+    private static final String COLUMN_TERM = "term";
+    private static final String COLUMN_WEIGHT = "weight";
+    private static final String COLUMN_VALUE = "value";
+
+    private static final String SYNC_CURSOR_KEY = "history_cursor";
+
+    private static final String[] LOG_COLUMNS = {
+            COLUMN_ID, COLUMN_TITLE, COLUMN_BODY, COLUMN_TYPE, COLUMN_SENT_AT, COLUMN_CAMPAIGN_ID};
+    // Newest first, ties broken by ID - the same order the server pages in
+    private static final String NEWEST_FIRST = COLUMN_SENT_AT + " DESC, " + COLUMN_ID + " DESC";
+
+    private static final int MAX_ENTRIES = 5000;
+    private static final int MAX_TOMBSTONES = 500;
+
+    // A title match counts as much as this many body matches
+    private static final int TITLE_WEIGHT = 3;
+    // BM25 term frequency saturation - repeating a word adds less and less to the score
+    private static final double TF_SATURATION = 1.2;
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private static volatile NotificationStore instance;
+
+    // One helper per database file - SQLite serializes its connections per helper
+    static NotificationStore get(Context context) {
+        NotificationStore result = instance;
+        if (result == null) {
+            synchronized (NotificationStore.class) {
+                if (instance == null) {
+                    instance = new NotificationStore(context.getApplicationContext());
+                }
+                result = instance;
+            }
+        }
+        return result;
+    }
+
+    // Package-private for tests - everything else shares get()
+    NotificationStore(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+        // Readers (the history screen) never wait for the receive path's writes
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_NOTIFICATIONS + " ("
+                + COLUMN_ROW_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_ID + " TEXT NOT NULL UNIQUE, "
+                + COLUMN_CAMPAIGN_ID + " TEXT, "
+                + COLUMN_TITLE + " TEXT, "
+                + COLUMN_BODY + " TEXT, "
+                + COLUMN_TYPE + " TEXT, "
+                + COLUMN_SENT_AT + " TEXT NOT NULL)");
+        db.execSQL("CREATE INDEX idx_notifications_sent_at ON " + TABLE_NOTIFICATIONS
+                + " (" + COLUMN_SENT_AT + ", " + COLUMN_ID + ")");
+        db.execSQL("CREATE INDEX idx_notifications_campaign ON " + TABLE_NOTIFICATIONS
+                + " (" + COLUMN_CAMPAIGN_ID + ")");
+        db.execSQL("CREATE TABLE " + TABLE_TOMBSTONES + " ("
+                + COLUMN_KEY + " TEXT PRIMARY KEY, "
+                + COLUMN_CREATED_AT + " INTEGER NOT NULL)");
+        createSearchIndex(db);
+        createSyncState(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createSearchIndex(db);
+            try (Cursor cursor = db.query(TABLE_NOTIFICATIONS, new String[]{COLUMN_ROW_ID, COLUMN_TITLE, COLUMN_BODY},
+                    null, null, null, null, null)) {
+                while (cursor.moveToNext()) {
+                    indexRow(db, cursor.getLong(0), cursor.getString(1), cursor.getString(2));
+                }
+            }
+        }
+        if (oldVersion < 3) {
+            createSyncState(db);
+        }
+    }
+
+    private static void createSyncState(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " ("
+                + COLUMN_KEY + " TEXT PRIMARY KEY, "
+                + COLUMN_VALUE + " TEXT)");
+    }
+
+    private static void createSearchIndex(SQLiteDatabase db) {
+        // Posting lists are read by term; the row_id index serves deletes
+        db.execSQL("CREATE TABLE " + TABLE_TERMS + " ("
+                + COLUMN_TERM + " TEXT NOT NULL, "
+                + COLUMN_ROW_ID + " INTEGER NOT NULL, "
+                + COLUMN_WEIGHT + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_TERM + ", " + COLUMN_ROW_ID + ")) WITHOUT ROWID");
+        db.execSQL("CREATE INDEX idx_terms_row ON " + TABLE_TERMS + " (" + COLUMN_ROW_ID + ")");
+        // Every way an entry can leave the table (delete, retention, sync) drops its terms
+        db.execSQL("CREATE TRIGGER notifications_unindex AFTER DELETE ON " + TABLE_NOTIFICATIONS
+                + " BEGIN DELETE FROM " + TABLE_TERMS + " WHERE " + COLUMN_ROW_ID + " = old." + COLUMN_ROW_ID + "; END");
+    }
+
+    /**
+     * Insert an entry unless it, or its campaign, is already stored or was deleted
+     * @return true if the entry was added
+     */
+    boolean insertIfAbsent(NotificationLog log) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            if (isTombstoned(db, log) || (log.getCampaignId() != null && hasCampaign(db, log.getCampaignId()))) {
+                return false;
+            }
+            long rowId = insertAndIndex(db, log);
+            if (rowId == -1) {
+                return false;
+            }
+            // Rowids only grow, so everything older than the newest MAX_ENTRIES inserts is a single range
+            db.delete(TABLE_NOTIFICATIONS, COLUMN_ROW_ID + " <= ?", new String[]{String.valueOf(rowId - MAX_ENTRIES)});
+            db.setTransactionSuccessful();
+            return true;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Insert many entries in one transaction, e.g. when migrating older storage
+     */
+    void insertAll(Collection<NotificationLog> logs) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (NotificationLog log : logs) {
+                if (log.getId() != null && log.getSentAt() != null) {
+                    insertAndIndex(db, log);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Keyset page, newest first
+     * @param after The last entry of the previous page, or null for the first page
+     */
+    List<NotificationLog> queryPage(NotificationLog after, int limit) {
+        String selection = null;
+        String[] args = null;
+        if (after != null) {
+            selection = COLUMN_SENT_AT + " < ? OR (" + COLUMN_SENT_AT + " = ? AND " + COLUMN_ID + " < ?)";
+            args = new String[]{after.getSentAt(), after.getSentAt(), after.getId()};
+        }
+        try (Cursor cursor = getReadableDatabase().query(TABLE_NOTIFICATIONS, LOG_COLUMNS, selection, args,
+                null, null, NEWEST_FIRST, String.valueOf(limit))) {
+            List<NotificationLog> page = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                page.add(new NotificationLog(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getString(4), cursor.getString(5)));
+            }
+            return page;
+        }
+    }
+
+    /**
+     * Delete an entry and remember it (and its campaign) so a server page cannot restore it
+     */
+    void delete(NotificationLog log, boolean tombstoneId) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_NOTIFICATIONS, COLUMN_ID + " = ?", new String[]{log.getId()});
+            long now = System.currentTimeMillis();
+            if (tombstoneId) {
+                addTombstone(db, log.getId(), now);
+            }
+            if (log.getCampaignId() != null) {
+                addTombstone(db, log.getCampaignId(), now);
+            }
+            db.execSQL("DELETE FROM " + TABLE_TOMBSTONES + " WHERE " + COLUMN_KEY + " NOT IN (SELECT "
+                    + COLUMN_KEY + " FROM " + TABLE_TOMBSTONES + " ORDER BY " + COLUMN_CREATED_AT
+                    + " DESC LIMIT " + MAX_TOMBSTONES + ")");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Apply one chunk of a history sync
+     * A server entry replaces the locally received copy of its campaign - it has the real ID, needed for deletes.
+     * @param items Entries created on the server since the last sync
+     * @param deletedIds Server entries deleted since the last sync
+     * @return Server IDs of entries already deleted on this device - their deletes should be queued
+     */
+    List<String> applySync(List<NotificationLog> items, List<String> deletedIds) {
+        List<String> staleOnServer = new ArrayList<>();
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (NotificationLog log : items) {
+                if (log.getId() == null || log.getSentAt() == null) {
+                    continue;
+                }
+                if (isTombstoned(db, log)) {
+                    staleOnServer.add(log.getId());
+                    continue;
+                }
+                if (log.getCampaignId() != null) {
+                    db.delete(TABLE_NOTIFICATIONS, COLUMN_CAMPAIGN_ID + " = ? AND " + COLUMN_ID + " <> ?",
+                            new String[]{log.getCampaignId(), log.getId()});
+                }
+                // Server logs never change, so an entry that is already stored keeps its row and terms
+                insertAndIndex(db, log);
+            }
+            for (String id : deletedIds) {
+                db.delete(TABLE_NOTIFICATIONS, COLUMN_ID + " = ?", new String[]{id});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return staleOnServer;
+    }
+
+    /**
+     * Remove every entry that came from the server, before a full sync
+     * Locally received entries are kept - the sync replaces them as their server logs arrive.
+     */
+    void clearSynced(String localIdPrefix) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_NOTIFICATIONS, COLUMN_ID + " NOT LIKE ?", new String[]{localIdPrefix + "%"});
+            db.delete(TABLE_SYNC_STATE, COLUMN_KEY + " = ?", new String[]{SYNC_CURSOR_KEY});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @return The server's cursor after the last completed sync, or null if the history was never synced
+     */
+    String getSyncCursor() {
+        try (Cursor cursor = getReadableDatabase().query(TABLE_SYNC_STATE, new String[]{COLUMN_VALUE},
+                COLUMN_KEY + " = ?", new String[]{SYNC_CURSOR_KEY}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    void setSyncCursor(String syncCursor) {
+        ContentValues values = new ContentValues(2);
+        values.put(COLUMN_KEY, SYNC_CURSOR_KEY);
+        values.put(COLUMN_VALUE, syncCursor);
+        getWritableDatabase().insertWithOnConflict(TABLE_SYNC_STATE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Ranked full-text search over title and body
+     * Every query term must match; the last one also matches as a prefix, so results update while typing.
+     * Entries are scored BM25-style - rarer terms and title matches rank higher - with newer entries first on ties.
+     * @param offset Number of results to skip, for paging
+     */
+    List<NotificationLog> search(String query, int offset, int limit) {
+        List<String> tokens = HistoryTokenizer.tokenize(query);
+        List<NotificationLog> results = new ArrayList<>();
+        if (tokens.isEmpty()) {
+            return results;
+        }
+        String prefix = tokens.get(tokens.size() - 1);
+        Set<String> exact = new LinkedHashSet<>(tokens.subList(0, tokens.size() - 1));
+        exact.remove(prefix);
+
+        SQLiteDatabase db = getReadableDatabase();
+        double total = DatabaseUtils.queryNumEntries(db, TABLE_NOTIFICATIONS);
+        StringBuilder postings = new StringBuilder();
+        List<String> args = new ArrayList<>();
+        int terms = 0;
+        for (String term : exact) {
+            if (terms == MAX_QUERY_TERMS - 1) {
+                break;
+            }
+            appendPostings(db, postings, args, COLUMN_TERM + " = ?", new String[]{term}, total);
+            terms++;
+        }
+        // Prefix range on the primary key - "coup" reads the posting lists of "coupon", "coupons", ...
+        appendPostings(db, postings, args, COLUMN_TERM + " >= ? AND " + COLUMN_TERM + " < ?",
+                new String[]{prefix, prefix + Character.MAX_VALUE}, total);
+        terms++;
+
+        String sql = "SELECT " + columnList("n.") + " FROM (SELECT " + COLUMN_ROW_ID + ", SUM(score) AS score FROM ("
+                + postings + ") GROUP BY " + COLUMN_ROW_ID + " HAVING COUNT(*) = " + terms + ") AS m"
+                + " JOIN " + TABLE_NOTIFICATIONS + " AS n ON n." + COLUMN_ROW_ID + " = m." + COLUMN_ROW_ID
+                + " ORDER BY m.score DESC, n." + COLUMN_SENT_AT + " DESC, n." + COLUMN_ID + " DESC"
+                + " LIMIT " + limit + " OFFSET " + offset;
+        try (Cursor cursor = db.rawQuery(sql, args.toArray(new String[0]))) {
+            while (cursor.moveToNext()) {
+                results.add(new NotificationLog(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getString(4), cursor.getString(5)));
+            }
+        }
+        return results;
+    }
+
+    // One scored posting list per query term - a row appears at most once per list
+    private static void appendPostings(SQLiteDatabase db, StringBuilder postings, List<String> args,
+                                       String termSelection, String[] termArgs, double total) {
+        long matching = DatabaseUtils.longForQuery(db, "SELECT COUNT(DISTINCT " + COLUMN_ROW_ID + ") FROM "
+                + TABLE_TERMS + " WHERE " + termSelection, termArgs);
+        double idf = Math.log(1 + (total - matching + 0.5) / (matching + 0.5));
+        if (postings.length() > 0) {
+            postings.append(" UNION ALL ");
+        }
+        postings.append("SELECT ").append(COLUMN_ROW_ID).append(", ")
+                .append(idf * (TF_SATURATION + 1)).append(" * MAX(").append(COLUMN_WEIGHT).append(") / (MAX(")
+                .append(COLUMN_WEIGHT).append(") + ").append(TF_SATURATION).append(") AS score FROM ")
+                .append(TABLE_TERMS).append(" WHERE ").append(termSelection)
+                .append(" GROUP BY ").append(COLUMN_ROW_ID);
+        for (String arg : termArgs) {
+            args.add(arg);
+        }
+    }
+
+    private static String columnList(String alias) {
+        StringBuilder columns = new StringBuilder();
+        for (String column : LOG_COLUMNS) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append(alias).append(column);
+        }
+        return columns.toString();
+    }
+
+    // @return The new row's ID, or -1 if an entry with the same ID is already stored
+    private static long insertAndIndex(SQLiteDatabase db, NotificationLog log) {
+        long rowId = db.insertWithOnConflict(TABLE_NOTIFICATIONS, null, toValues(log), SQLiteDatabase.CONFLICT_IGNORE);
+        if (rowId != -1) {
+            indexRow(db, rowId, log.getTitle(), log.getBody());
+        }
+        return rowId;
+    }
+
+    private static void indexRow(SQLiteDatabase db, long rowId, String title, String body) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : HistoryTokenizer.tokenize(title)) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : HistoryTokenizer.tokenize(body)) {
+            weights.merge(term, 1, Integer::sum);
+        }
+        if (weights.isEmpty()) {
+            return;
+        }
+        SQLiteStatement insert = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_TERMS
+                + " (" + COLUMN_TERM + ", " + COLUMN_ROW_ID + ", " + COLUMN_WEIGHT + ") VALUES (?, ?, ?)");
+        try {
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                insert.bindString(1, entry.getKey());
+                insert.bindLong(2, rowId);
+                insert.bindLong(3, entry.getValue());
+                insert.executeInsert();
+            }
+        } finally {
+            insert.close();
+        }
+    }
+
+    /**
+     * Trim the history to the retention limits and give the freed space back to the file system
+     * @param sentBefore Entries sent before this are removed, or null for no age limit
+     * @param maxEntries Newest entries to keep, or 0 for no limit
+     * @param maxBytes Database size to stay under, or 0 for no limit
+     * @return Number of entries removed
+     */
+    int compact(String sentBefore, int maxEntries, long maxBytes) {
+        SQLiteDatabase db = getWritableDatabase();
+        int removed = 0;
+        if (sentBefore != null) {
+            removed += db.delete(TABLE_NOTIFICATIONS, COLUMN_SENT_AT + " < ?", new String[]{sentBefore});
+        }
+        if (maxEntries > 0) {
+            removed += keepNewest(db, maxEntries);
+        }
+        if (maxBytes > 0) {
+            long size = databaseSize(db);
+            long count = DatabaseUtils.queryNumEntries(db, TABLE_NOTIFICATIONS);
+            if (size > maxBytes && count > 0) {
+                // Entries are similar in size - keep the share of them that fits, with some headroom
+                removed += keepNewest(db, (int) (count * (maxBytes * 0.9) / size));
+            }
+        }
+        if (removed > 0) {
+            reclaimSpace(db);
+        }
+        return removed;
+    }
+
+    private static int keepNewest(SQLiteDatabase db, int count) {
+        return db.delete(TABLE_NOTIFICATIONS, COLUMN_ROW_ID + " IN (SELECT " + COLUMN_ROW_ID + " FROM "
+                + TABLE_NOTIFICATIONS + " ORDER BY " + NEWEST_FIRST + " LIMIT -1 OFFSET " + count + ")", null);
+    }
+
+    private static long databaseSize(SQLiteDatabase db) {
+        return new File(db.getPath()).length() + new File(db.getPath() + "-wal").length();
+    }
+
+    // Deleted rows only go to SQLite's free list - shrink the file once enough of it is unused
+    private static void reclaimSpace(SQLiteDatabase db) {
+        long freePages = DatabaseUtils.longForQuery(db, "PRAGMA freelist_count", null);
+        long pages = DatabaseUtils.longForQuery(db, "PRAGMA page_count", null);
+        if (pages > 0 && freePages * 4 >= pages) {
+            db.execSQL("VACUUM");
+        }
+        try (Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(TRUNCATE)", null)) {
+            cursor.moveToFirst();
+        }
+    }
+
+    private boolean hasCampaign(SQLiteDatabase db, String campaignId) {
+        return DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM (SELECT 1 FROM " + TABLE_NOTIFICATIONS
+                + " WHERE " + COLUMN_CAMPAIGN_ID + " = ? LIMIT 1)", new String[]{campaignId}) > 0;
+    }
+
+    private boolean isTombstoned(SQLiteDatabase db, NotificationLog log) {
+        String campaignId = log.getCampaignId() != null ? log.getCampaignId() : log.getId();
+        return DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM " + TABLE_TOMBSTONES
+                + " WHERE " + COLUMN_KEY + " IN (?, ?)", new String[]{log.getId(), campaignId}) > 0;
+    }
+
+    private void addTombstone(SQLiteDatabase db, String key, long now) {
+        ContentValues values = new ContentValues(2);
+        values.put(COLUMN_KEY, key);
+        values.put(COLUMN_CREATED_AT, now);
+        db.insertWithOnConflict(TABLE_TOMBSTONES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private static ContentValues toValues(NotificationLog log) {
+        ContentValues values = new ContentValues(6);
+        values.put(COLUMN_ID, log.getId());
+        values.put(COLUMN_CAMPAIGN_ID, log.getCampaignId());
+        values.put(COLUMN_TITLE, log.getTitle());
+        values.put(COLUMN_BODY, log.getBody());
+        values.put(COLUMN_TYPE, log.getType());
+        values.put(COLUMN_SENT_AT, log.getSentAt());
+        return values;
+    }
+}
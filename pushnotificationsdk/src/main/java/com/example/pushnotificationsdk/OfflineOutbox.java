@@ -0,0 +1,318 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable queue of SDK writes (registration, profile, location, unregister, deletes, stats uploads)
+ * Writes survive process death, superseded writes are collapsed by key,
+ * and the queue is flushed in batches whenever the network is available.
+ * This is the only retry layer for these writes - their PushApiService methods are @Queued, so
+ * RetryInterceptor sends each attempt once and the backoff below happens on the outbox thread.
+ */
+class OfflineOutbox {
+
+    private static final String TAG = "PushSDK";
+    private static final String PREFS_NAME = "PushSDKOutboxPrefs";
+    private static final String ENTRIES_KEY = "outbox_entries";
+
+    private static final int BATCH_SIZE = 20;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long BASE_RETRY_DELAY_MS = 2000;
+    private static final long MAX_RETRY_DELAY_MS = 5 * 60 * 1000;
+
+    /**
+     * Outcome of sending a single entry
+     */
+    enum Result {
+        DONE,   // Accepted by the server
+        RETRY,  // Transient failure - keep the entry and try again later
+        DROP    // Permanent failure - retrying would not help
+    }
+
+    /**
+     * Sends one entry synchronously. Runs on the outbox thread.
+     */
+    interface Dispatcher {
+        Result dispatch(OutboxEntry entry) throws IOException;
+    }
+
+    private final SharedPreferences sharedPreferences;
+    private final Gson gson;
+    private final Dispatcher dispatcher;
+    private final ScheduledExecutorService executor;
+    private final LinkedHashMap<String, OutboxEntry> entries;
+    private ScheduledFuture<?> scheduledRetry;
+    private int consecutiveFailures;
+
+    OfflineOutbox(Context context, Dispatcher dispatcher) {
+        this.sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.gson = JsonCodecs.gson();
+        this.dispatcher = dispatcher;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "PushSDK-Outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.entries = load();
+        registerNetworkCallback(context);
+    }
+
+    /**
+     * Queue a write. Any pending entry with the same key, or with one of the superseded keys, is discarded.
+     */
+    synchronized void enqueue(OutboxEntry entry, String... supersededKeys) {
+        OutboxEntry existing = entries.get(entry.getKey());
+        if (existing != null && existing.isSameWrite(entry) && !containsAny(supersededKeys)) {
+            // Identical write already pending or in flight - one request serves both callers
+            Log.d(TAG, "🔗 " + entry.getType() + " already queued - merged");
+            return;
+        }
+        for (String supersededKey : supersededKeys) {
+            entries.remove(supersededKey);
+        }
+        // Remove first so the replacement moves to the back of the queue
+        entries.remove(entry.getKey());
+        entries.put(entry.getKey(), entry);
+        persist();
+        Log.d(TAG, "📥 Queued " + entry.getType() + " (" + entries.size() + " pending)");
+        // While backing off, a new write waits for the scheduled retry - flushing now would resend the
+        // head entry and use up its attempts without the backoff ever passing
+        if (!isBackingOff()) {
+            flush();
+        }
+    }
+
+    private boolean isBackingOff() {
+        return consecutiveFailures > 0 || (scheduledRetry != null && !scheduledRetry.isDone());
+    }
+
+    private boolean containsAny(String[] keys) {
+        for (String key : keys) {
+            if (entries.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    <T> T readPayload(OutboxEntry entry, Class<T> type) {
+        return gson.fromJson(entry.getPayload(), type);
+    }
+
+    String toPayload(Object payload) {
+        return gson.toJson(payload);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop the oldest writes beyond the policy's limits
+     * Registration and profile writes are kept - they carry the device's current state, one entry each.
+     * @return Number of entries dropped
+     */
+    synchronized int compact(RetentionPolicy policy) {
+        long cutoff = policy.getMaxAgeMillis() > 0 ? System.currentTimeMillis() - policy.getMaxAgeMillis() : 0;
+        int droppable = 0;
+        long bytes = 0;
+        for (OutboxEntry entry : entries.values()) {
+            if (!isRetained(entry)) {
+                droppable++;
+                bytes += entry.getPayload() != null ? entry.getPayload().length() : 0;
+            }
+        }
+
+        int dropped = 0;
+        // Insertion order is oldest first
+        Iterator<OutboxEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            OutboxEntry entry = iterator.next();
+            if (isRetained(entry)) {
+                continue;
+            }
+            boolean tooOld = entry.getCreatedAt() < cutoff;
+            boolean tooMany = policy.getMaxEntries() > 0 && droppable - dropped > policy.getMaxEntries();
+            boolean tooLarge = policy.getMaxBytes() > 0 && bytes > policy.getMaxBytes();
+            if (!tooOld && !tooMany && !tooLarge) {
+                continue;
+            }
+            iterator.remove();
+            dropped++;
+            bytes -= entry.getPayload() != null ? entry.getPayload().length() : 0;
+        }
+        if (dropped > 0) {
+            persist();
+            Log.d(TAG, "🧹 Outbox dropped " + dropped + " stale entries (" + entries.size() + " pending)");
+        }
+        return dropped;
+    }
+
+    private static boolean isRetained(OutboxEntry entry) {
+        return OutboxEntry.KEY_REGISTRATION.equals(entry.getKey()) || OutboxEntry.KEY_PROFILE.equals(entry.getKey());
+    }
+
+    /**
+     * Send pending writes in the background
+     */
+    void flush() {
+        executor.execute(this::drain);
+    }
+
+    private void drain() {
+        List<OutboxEntry> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            for (OutboxEntry entry : batch) {
+                Result result;
+                try {
+                    result = dispatcher.dispatch(entry);
+                } catch (CircuitOpenException e) {
+                    // Never sent - wait for the circuit without counting an attempt
+                    Log.w(TAG, "⚠️ Outbox flush paused: " + e.getMessage());
+                    onRetry(entry, false, e.getRetryAfterMillis());
+                    return;
+                } catch (IOException e) {
+                    Log.w(TAG, "⚠️ Outbox flush interrupted by network error: " + e.getMessage());
+                    result = Result.RETRY;
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "❌ Dropping outbox entry " + entry.getType() + " after unexpected error", e);
+                    result = Result.DROP;
+                }
+
+                if (result == Result.RETRY) {
+                    onRetry(entry, true, 0);
+                    return;
+                }
+                complete(entry, result);
+            }
+        }
+        synchronized (this) {
+            consecutiveFailures = 0;
+        }
+    }
+
+    private synchronized List<OutboxEntry> nextBatch() {
+        List<OutboxEntry> batch = new ArrayList<>(Math.min(BATCH_SIZE, entries.size()));
+        for (OutboxEntry entry : entries.values()) {
+            if (batch.size() == BATCH_SIZE) {
+                break;
+            }
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    private synchronized void complete(OutboxEntry entry, Result result) {
+        // Only remove the entry if it was not superseded while it was in flight
+        if (entries.get(entry.getKey()) == entry) {
+            entries.remove(entry.getKey());
+            persist();
+        }
+        if (result == Result.DONE) {
+            Log.d(TAG, "✅ Outbox delivered " + entry.getType());
+        } else {
+            Log.w(TAG, "⚠️ Outbox dropped " + entry.getType());
+        }
+    }
+
+    /**
+     * @param countAttempt Whether the entry was actually sent - only then does it count towards MAX_ATTEMPTS
+     * @param minDelayMillis Wait at least this long, e.g. until an open circuit allows calls again
+     */
+    private synchronized void onRetry(OutboxEntry entry, boolean countAttempt, long minDelayMillis) {
+        if (countAttempt) {
+            entry.incrementAttempts();
+            if (entry.getAttempts() >= MAX_ATTEMPTS) {
+                Log.e(TAG, "❌ Giving up on " + entry.getType() + " after " + entry.getAttempts() + " attempts");
+                complete(entry, Result.DROP);
+            } else {
+                persist();
+            }
+        }
+
+        consecutiveFailures++;
+        long backoff = Math.min(MAX_RETRY_DELAY_MS, BASE_RETRY_DELAY_MS << Math.min(consecutiveFailures - 1, 16));
+        // Jitter keeps devices that went offline together from retrying in lockstep
+        long delay = Math.max(minDelayMillis, backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+        if (scheduledRetry != null) {
+            scheduledRetry.cancel(false);
+        }
+        scheduledRetry = executor.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+        Log.d(TAG, "⏰ Outbox retry in " + delay + "ms (" + entries.size() + " pending)");
+    }
+
+    private void registerNetworkCallback(Context context) {
+        ConnectivityManager connectivityManager = context.getSystemService(ConnectivityManager.class);
+        if (connectivityManager == null) {
+            return;
+        }
+        try {
+            connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(@NonNull Network network) {
+                    synchronized (OfflineOutbox.this) {
+                        consecutiveFailures = 0;
+                        // Flushing right away replaces the scheduled retry
+                        if (scheduledRetry != null) {
+                            scheduledRetry.cancel(false);
+                            scheduledRetry = null;
+                        }
+                        if (entries.isEmpty()) {
+                            return;
+                        }
+                    }
+                    Log.d(TAG, "🌐 Network available - flushing outbox");
+                    flush();
+                }
+            });
+        } catch (RuntimeException e) {
+            Log.w(TAG, "⚠️ Could not register network callback - outbox will flush on next write", e);
+        }
+    }
+
+    private LinkedHashMap<String, OutboxEntry> load() {
+        LinkedHashMap<String, OutboxEntry> loaded = new LinkedHashMap<>();
+        String json = sharedPreferences.getString(ENTRIES_KEY, null);
+        if (json == null) {
+            return loaded;
+        }
+        try {
+            Type type = new TypeToken<List<OutboxEntry>>(){}.getType();
+            List<OutboxEntry> stored = gson.fromJson(json, type);
+            if (stored != null) {
+                for (OutboxEntry entry : stored) {
+                    loaded.put(entry.getKey(), entry);
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "❌ Discarding unreadable outbox", e);
+        }
+        return loaded;
+    }
+
+    private void persist() {
+        List<OutboxEntry> snapshot = new ArrayList<>(entries.values());
+        sharedPreferences.edit().putString(ENTRIES_KEY, gson.toJson(snapshot)).apply();
+    }
+}
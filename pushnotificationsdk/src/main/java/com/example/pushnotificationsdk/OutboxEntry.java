@@ -0,0 +1,69 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * A pending SDK write waiting in the offline outbox
+ * Entries with the same key supersede each other - only the latest is sent
+ */
+class OutboxEntry {
+
+    static final String TYPE_REGISTER = "register";
+    static final String TYPE_UPDATE_PROFILE = "update_profile";
+    static final String TYPE_UPDATE_LOCATION = "update_location";
+    static final String TYPE_UPDATE_LOCATION_BATCH = "update_location_batch";
+    static final String TYPE_UNREGISTER = "unregister";
+    static final String TYPE_DELETE_NOTIFICATION = "delete_notification";
+    static final String TYPE_UPLOAD_LATENCY = "upload_latency";
+    static final String TYPE_UPLOAD_RECEIPTS = "upload_receipts";
+
+    static final String KEY_REGISTRATION = "registration";
+    static final String KEY_PROFILE = "profile";
+    static final String KEY_LOCATION = "location";
+    static final String KEY_DELETE_PREFIX = "delete:";
+    static final String KEY_LATENCY_PREFIX = "latency:";
+    static final String KEY_RECEIPTS_PREFIX = "receipts:";
+
+    private String key;
+    private String type;
+    private String payload;
+    private long createdAt;
+    private int attempts;
+
+    OutboxEntry(String key, String type, String payload) {
+        this.key = key;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getPayload() {
+        return payload;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return true if both entries would send the same request
+     */
+    boolean isSameWrite(OutboxEntry other) {
+        return key.equals(other.key) && type.equals(other.type)
+                && (payload != null ? payload.equals(other.payload) : other.payload == null);
+    }
+
+    void incrementAttempts() {
+        attempts++;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pushnotificationsdk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Field-level profile update - only the fields that changed are set, the rest are left null
+ * and omitted from the JSON body
+ */
+public class ProfilePatchRequest {
+    private String token;
+    private String userId;
+    private String gender;
+    private Integer age;
+    private Double lat;
+    private Double lng;
+    private List<String> addInterests;
+    private List<String> removeInterests;
+
+    private ProfilePatchRequest(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Compute the patch that turns the acknowledged profile into the desired one
+     * @return The patch, or null if nothing changed
+     */
+    public static ProfilePatchRequest diff(String token, UserInfo acknowledged, UserInfo desired) {
+        ProfilePatchRequest patch = new ProfilePatchRequest(token);
+        boolean changed = false;
+
+        if (!Objects.equals(acknowledged.getUserId(), desired.getUserId())) {
+            patch.userId = desired.getUserId();
+            changed = true;
+        }
+        if (!Objects.equals(acknowledged.getGender(), desired.getGender())) {
+            patch.gender = desired.getGender();
+            changed = true;
+        }
+        if (acknowledged.getAge() != desired.getAge()) {
+            patch.age = desired.getAge();
+            changed = true;
+        }
+        if (Double.compare(acknowledged.getLat(), desired.getLat()) != 0) {
+            patch.lat = desired.getLat();
+            changed = true;
+        }
+        if (Double.compare(acknowledged.getLng(), desired.getLng()) != 0) {
+            patch.lng = desired.getLng();
+            changed = true;
+        }
+
+        Set<String> before = toSet(acknowledged.getInterests());
+        Set<String> after = toSet(desired.getInterests());
+        List<String> added = new ArrayList<>();
+        for (String interest : after) {
+            if (!before.contains(interest)) {
+                added.add(interest);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String interest : before) {
+            if (!after.contains(interest)) {
+                removed.add(interest);
+            }
+        }
+        if (!added.isEmpty()) {
+            patch.addInterests = added;
+            changed = true;
+        }
+        if (!removed.isEmpty()) {
+            patch.removeInterests = removed;
+            changed = true;
+        }
+
+        return changed ? patch : null;
+    }
+
+    private static Set<String> toSet(List<String> interests) {
+        return interests != null ? new LinkedHashSet<>(interests) : Collections.emptySet();
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public List<String> getAddInterests() {
+        return addInterests;
+    }
+
+    public List<String> getRemoveInterests() {
+        return removeInterests;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.gson.Gson;
+
+/**
+ * Remembers the last profile the server acknowledged and its version,
+ * so profile updates can be sent as patches against it.
+ * Also keeps the profile last registered from this device, so a rotated token can be
+ * re-registered in a process where the app has not set a user yet.
+ */
+class ProfileStore {
+
+    private static final String PREFS_NAME = "PushSDKProfilePrefs";
+    private static final String TOKEN_KEY = "acked_token";
+    private static final String PROFILE_KEY = "acked_profile";
+    private static final String VERSION_KEY = "acked_version";
+    private static final String REGISTERED_TOKEN_KEY = "registered_token";
+    private static final String REGISTERED_PROFILE_KEY = "registered_profile";
+
+    private final SharedPreferences sharedPreferences;
+    private final Gson gson;
+
+    ProfileStore(Context context) {
+        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        gson = JsonCodecs.gson();
+    }
+
+    /**
+     * @return The acknowledged profile for this token, or null if the server state is unknown
+     */
+    UserInfo getAcknowledged(String token) {
+        if (token == null || !token.equals(sharedPreferences.getString(TOKEN_KEY, null))) {
+            return null;
+        }
+        String json = sharedPreferences.getString(PROFILE_KEY, null);
+        return json != null ? gson.fromJson(json, UserInfo.class) : null;
+    }
+
+    long getVersion() {
+        return sharedPreferences.getLong(VERSION_KEY, 0);
+    }
+
+    void acknowledge(String token, UserInfo profile, long version) {
+        sharedPreferences.edit()
+                .putString(TOKEN_KEY, token)
+                .putString(PROFILE_KEY, gson.toJson(profile))
+                .putLong(VERSION_KEY, version)
+                .apply();
+    }
+
+    /**
+     * Forget the acknowledged profile - the next update is sent in full
+     */
+    void clear() {
+        sharedPreferences.edit()
+                .remove(TOKEN_KEY)
+                .remove(PROFILE_KEY)
+                .remove(VERSION_KEY)
+                .apply();
+    }
+
+    /**
+     * Remember the profile this device was registered or updated with, and the token it was sent for
+     */
+    void setRegistered(String token, UserInfo profile) {
+        sharedPreferences.edit()
+                .putString(REGISTERED_TOKEN_KEY, token)
+                .putString(REGISTERED_PROFILE_KEY, gson.toJson(profile))
+                .apply();
+    }
+
+    /**
+     * @return The profile last registered from this device, or null if it was never registered or has unregistered
+     */
+    UserInfo getRegistered() {
+        String json = sharedPreferences.getString(REGISTERED_PROFILE_KEY, null);
+        return json != null ? gson.fromJson(json, UserInfo.class) : null;
+    }
+
+    /**
+     * @return true if the device is registered, but under a different token than this one
+     */
+    boolean isRegisteredWithOtherToken(String token) {
+        String registeredToken = sharedPreferences.getString(REGISTERED_TOKEN_KEY, null);
+        return registeredToken != null && !registeredToken.equals(token)
+                && sharedPreferences.contains(REGISTERED_PROFILE_KEY);
+    }
+
+    /**
+     * Forget the registered profile once the device unregisters
+     */
+    void clearRegistered() {
+        sharedPreferences.edit()
+                .remove(REGISTERED_TOKEN_KEY)
+                .remove(REGISTERED_PROFILE_KEY)
+                .apply();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * Profile version the server assigned after a full update or a patch
+ */
+public class ProfileVersionResponse {
+    private long version;
+
+    public ProfileVersionResponse() {
+        // Default constructor for JSON deserialization
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -2,47 +2,101 @@ package com.example.pushnotificationsdk;
 
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 public interface PushApiService {
+    @CompactWire
+    @Queued
     @POST("/api/devices/register")
     Call<Void> registerDevice(@Body RegisterDeviceRequest request);
 
+    // Registers the device and resolves the app's clientId in a single round trip
+    @CompactWire
+    @Queued
+    @POST("/api/devices/bootstrap")
+    Call<RegisterDeviceResponse> bootstrapDevice(@Body RegisterDeviceRequest request);
+
+    @Hedged
     @GET("/api/notifications/history/{token}")
     Call<List<com.example.pushnotificationsdk.NotificationLog>> getNotificationHistory(@Path("token") String token);
 
+    // Cache-aware variant - pass a Cache-Control request header, or null for a normal (revalidating) request
+    @Hedged
+    @GET("/api/notifications/history/{token}")
+    Call<List<com.example.pushnotificationsdk.NotificationLog>> getNotificationHistory(@Path("token") String token, @Header("Cache-Control") String cacheControl);
+
+    // Entries created or deleted since the cursor (null for a full sync) - read as a stream, see HistorySync
+    @Streaming
+    @GET("/api/notifications/history/{token}/sync")
+    Call<ResponseBody> syncNotificationHistory(@Path("token") String token, @Query("since") String since, @Query("limit") int limit);
+
     @GET("/api/devices/me/{token}")
     Call<UserInfoResponse> getDeviceInfoByToken(@Path("token") String token);
 
+    @GET("/api/devices/me/{token}")
+    Call<UserInfoResponse> getDeviceInfoByToken(@Path("token") String token, @Header("Cache-Control") String cacheControl);
+
+    @Queued
     @PUT("/api/devices/update")
-    Call<Void> updateDeviceInfo(@Body UpdateDeviceRequest request);
+    Call<ProfileVersionResponse> updateDeviceInfo(@Body UpdateDeviceRequest request);
+
+    // Field-level profile update, applied only if the server is still at the given version
+    @Queued
+    @PATCH("/api/devices/profile")
+    Call<ProfileVersionResponse> patchDeviceProfile(@Header("If-Match") String profileVersion, @Body ProfilePatchRequest request);
 
+    @CompactWire
+    @Queued
     @PUT("/api/devices/update-location")
     Call<Void> updateDeviceLocation(@Body UpdateLocationRequest request);
 
+    @CompactWire
+    @Queued
+    @PUT("/api/devices/update-location/batch")
+    Call<Void> updateDeviceLocationBatch(@Body UpdateLocationBatchRequest request);
+
+    @Queued
     @DELETE("/api/devices/unregister/{token}")
     Call<Void> unregisterDevice(@Path("token") String token);
 
     @GET("/api/applications/{appId}/client-id")
     Call<ClientIdResponse> getClientIdByAppId(@Path("appId") String appId);
 
+    @Hedged
     @GET("/api/applications/{appId}/interests-config")
     Call<InterestsConfigResponse> getApplicationInterestsConfig(@Path("appId") String appId);
 
+    @Hedged
+    @GET("/api/applications/{appId}/interests-config")
+    Call<InterestsConfigResponse> getApplicationInterestsConfig(@Path("appId") String appId, @Header("Cache-Control") String cacheControl);
+
     @PUT("/api/applications/{appId}/interests")
     Call<Void> updateApplicationInterests(@Path("appId") String appId, @Body UpdateInterestsRequest request);
 
+    @Queued
     @DELETE("/api/notifications/{id}")
     Call<Void> deleteNotification(@Path("id") String notificationId);
 
-
-
-
-
+    // Batched delivery/display latency histograms recorded on the device
+    @Compressed
+    @Queued
+    @POST("/api/stats/latency")
+    Call<Void> uploadLatencyStats(@Body LatencyUploadRequest request);
+
+    // Batched received/displayed/opened/dismissed events
+    @Compressed
+    @Queued
+    @POST("/api/stats/receipts")
+    Call<Void> uploadReceipts(@Body ReceiptBatchRequest request);
 }
@@ -6,6 +6,8 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.core.app.ActivityCompat;
@@ -13,8 +15,12 @@ import androidx.core.content.ContextCompat;
 
 import com.google.firebase.messaging.FirebaseMessaging;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -23,6 +29,11 @@ import retrofit2.Response;
 public class PushNotificationManager {
 
     private static final int NOTIFICATION_PERMISSION_REQUEST_CODE = 1001;
+    private static final long RE_REGISTRATION_DEBOUNCE_MS = 5000;
+    // Receipts are uploaded 1-5 minutes after the first pending event, so a broadcast does not
+    // bring every device back to the server at the same moment
+    private static final long RECEIPT_UPLOAD_MIN_DELAY_MS = 60 * 1000;
+    private static final long RECEIPT_UPLOAD_MAX_DELAY_MS = 5 * 60 * 1000;
 
     private static PushNotificationManager instance;
     private final Context context;
@@ -30,11 +41,21 @@ public class PushNotificationManager {
     private LocationManager locationManager;
     private String appId;
     private NotificationPermissionCallback notificationPermissionCallback;
+    private final ClientIdStore clientIdStore;
+    private final OfflineOutbox outbox;
+    private final ProfileStore profileStore;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable reRegistrationRunnable = this::reRegisterWithCachedToken;
+    private final Runnable receiptUploadRunnable = this::uploadReceipts;
+    private final AtomicBoolean receiptUploadScheduled = new AtomicBoolean();
 
     private PushNotificationManager(Context context, String appId) {
         this.context = context.getApplicationContext();
         this.locationManager = new LocationManager(context);
         this.appId = appId;
+        this.clientIdStore = new ClientIdStore(this.context);
+        this.profileStore = new ProfileStore(this.context);
+        this.outbox = new OfflineOutbox(this.context, this::dispatchOutboxEntry);
     }
 
     /**
@@ -44,9 +65,21 @@ public class PushNotificationManager {
      * @return PushNotificationManager instance
      */
     public static synchronized PushNotificationManager initialize(Context context, String appId) {
+        return initialize(context, appId, TransportConfig.defaults());
+    }
+
+    /**
+     * Initialize the SDK with your app ID and custom network transport settings
+     * @param context Application context
+     * @param appId Your unique app ID from the dashboard
+     * @param transportConfig Connection pool, HTTP/2, concurrency and logging settings
+     * @return PushNotificationManager instance
+     */
+    public static synchronized PushNotificationManager initialize(Context context, String appId, TransportConfig transportConfig) {
         if (appId == null || appId.trim().isEmpty()) {
             throw new IllegalArgumentException("App ID cannot be null or empty");
         }
+        ApiClient.configure(transportConfig, context.getApplicationContext());
         instance = new PushNotificationManager(context, appId);
         return instance;
     }
@@ -81,6 +114,9 @@ public class PushNotificationManager {
     public void start() {
         FirebaseMessaging.getInstance().setAutoInitEnabled(true);
 
+        // Fill the token cache right away so later operations never wait on Play Services
+        warmUpFCMConnection();
+
         // Enable high priority notifications for immediate delivery
         try {
             // Subscribe to a high-priority topic to ensure FCM connection is active
@@ -88,8 +124,6 @@ public class PushNotificationManager {
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         Log.d("PushSDK", "✅ Subscribed to high priority topic");
-                        // Warm up the FCM connection by getting token immediately
-                        warmUpFCMConnection();
                     } else {
                         Log.w("PushSDK", "⚠️ Failed to subscribe to high priority topic", task.getException());
                     }
@@ -100,8 +134,15 @@ public class PushNotificationManager {
 
         Log.d("PushSDK", "🚀 SDK started with App ID: " + appId);
 
-        // Test server connection
-        testServerConnection();
+        // Open the connection to the backend before the first registration needs it
+        warmUpServerConnection();
+
+        // Send latency samples and receipts recorded while the SDK was not running
+        uploadLatencyStats();
+        uploadReceipts();
+
+        // Keep local storage within its retention policies
+        DataCompactor.schedule(context);
     }
 
     /**
@@ -113,13 +154,19 @@ public class PushNotificationManager {
     }
 
     /**
-     * Warm up FCM connection to reduce notification delays
+     * Warm up FCM connection to reduce notification delays and prime the token cache
      */
     private void warmUpFCMConnection() {
         Log.d("PushSDK", "🔥 Warming up FCM connection...");
         FirebaseMessaging.getInstance().getToken()
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful() && task.getResult() != null) {
+                        String token = task.getResult();
+                        // A rotation seen while the SDK was not initialized is only stored - catch it up here
+                        if (TokenStore.update(context, token) || profileStore.isRegisteredWithOtherToken(token)) {
+                            Log.d("PushSDK", "🔄 Cached FCM token changed since last registration");
+                            scheduleReRegistration();
+                        }
                         Log.d("PushSDK", "✅ FCM connection warmed up successfully");
                     } else {
                         Log.w("PushSDK", "⚠️ FCM connection warm-up failed", task.getException());
@@ -127,22 +174,34 @@ public class PushNotificationManager {
                 });
     }
 
-    private void testServerConnection() {
-        Log.d("PushSDK", "🌐 Testing server connection to: http://10.0.2.2:8000");
-        // We'll test the connection when we actually register a device
-        // For now, just log that we're ready to connect
-        Log.d("PushSDK", "🔧 Server connection will be tested during device registration");
+    private void warmUpServerConnection() {
+        Log.d("PushSDK", "🌐 Warming up server connection...");
+        ApiClient.warmUp();
+    }
+
+    /**
+     * Get the cached FCM token without any async hop
+     * @return The last known token, or null if it has not been fetched yet
+     */
+    public String getCachedToken() {
+        return TokenStore.get(context);
     }
 
-    // Getting Firebase token for later use
+    // Getting Firebase token for later use - answered from the cache when possible
     public void getToken(OnTokenReceivedListener listener) {
+        String cachedToken = TokenStore.get(context);
+        if (cachedToken != null) {
+            listener.onTokenReceived(cachedToken);
+            return;
+        }
+
         Log.d("PushSDK", "🔄 Requesting FCM token...");
         FirebaseMessaging.getInstance().getToken()
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful() && task.getResult() != null) {
                         String token = task.getResult();
+                        TokenStore.update(context, token);
                         Log.d("PushSDK", "✅ FCM Token received: " + token.substring(0, Math.min(20, token.length())) + "...");
-                        Log.d("PushSDK", "📱 Full token: " + token);
                         listener.onTokenReceived(token);
                     } else {
                         Log.e("PushSDK", "❌ Failed to get FCM token", task.getException());
@@ -151,6 +210,160 @@ public class PushNotificationManager {
                 });
     }
 
+    /**
+     * Called by PushNotificationService when FCM rotates the token
+     */
+    static void onTokenRefreshed(Context context, String token) {
+        if (!TokenStore.update(context, token)) {
+            return;
+        }
+        PushNotificationManager manager;
+        synchronized (PushNotificationManager.class) {
+            manager = instance;
+        }
+        if (manager != null) {
+            manager.scheduleReRegistration();
+        }
+    }
+
+    /**
+     * Called by the messaging service once a full batch of latency samples is pending
+     */
+    static void onLatencyBatchReady() {
+        PushNotificationManager manager;
+        synchronized (PushNotificationManager.class) {
+            manager = instance;
+        }
+        // Without an initialized SDK the samples stay pending until the next start()
+        if (manager != null) {
+            manager.uploadLatencyStats();
+        }
+    }
+
+    /**
+     * Queue the pending latency samples for upload as one batch
+     * Each batch gets a random outbox key - two drains in the same millisecond must not replace each other
+     */
+    void uploadLatencyStats() {
+        String token = TokenStore.get(context);
+        if (token == null) {
+            return;
+        }
+        LatencyUploadRequest request = LatencyRecorder.get(context).drainPending(token, appId);
+        if (request != null) {
+            outbox.enqueue(new OutboxEntry(OutboxEntry.KEY_LATENCY_PREFIX + UUID.randomUUID(),
+                    OutboxEntry.TYPE_UPLOAD_LATENCY, outbox.toPayload(request)));
+        }
+    }
+
+    /**
+     * Record a notification receipt and schedule its upload
+     * Called from the messaging service and the notification open/dismiss handlers
+     */
+    static void recordReceipt(Context context, String event, String... campaignIds) {
+        boolean batchFull = ReceiptRecorder.get(context).record(event, campaignIds);
+        PushNotificationManager manager;
+        synchronized (PushNotificationManager.class) {
+            manager = instance;
+        }
+        // Without an initialized SDK the receipts stay pending until the next start()
+        if (manager != null) {
+            manager.scheduleReceiptUpload(batchFull);
+        }
+    }
+
+    private void scheduleReceiptUpload(boolean immediately) {
+        if (immediately) {
+            mainHandler.removeCallbacks(receiptUploadRunnable);
+            uploadReceipts();
+        } else if (receiptUploadScheduled.compareAndSet(false, true)) {
+            long delay = RECEIPT_UPLOAD_MIN_DELAY_MS
+                    + ThreadLocalRandom.current().nextLong(RECEIPT_UPLOAD_MAX_DELAY_MS - RECEIPT_UPLOAD_MIN_DELAY_MS);
+            mainHandler.postDelayed(receiptUploadRunnable, delay);
+        }
+    }
+
+    /**
+     * Queue all pending receipts for upload as one compressed batch
+     * Each batch gets a random outbox key - two drains in the same millisecond must not replace each other
+     */
+    void uploadReceipts() {
+        receiptUploadScheduled.set(false);
+        String token = TokenStore.get(context);
+        if (token == null) {
+            return;
+        }
+        ReceiptBatchRequest request = ReceiptRecorder.get(context).drainPending(token, appId);
+        if (request != null) {
+            outbox.enqueue(new OutboxEntry(OutboxEntry.KEY_RECEIPTS_PREFIX + UUID.randomUUID(),
+                    OutboxEntry.TYPE_UPLOAD_RECEIPTS, outbox.toPayload(request)));
+        }
+    }
+
+    /**
+     * Get the time messages took from being sent by the server to reaching this device
+     * Measured against the device clock, so a skewed clock shifts the values
+     * @return Percentiles over messages received on this install, within the telemetry retention age
+     */
+    public LatencySnapshot getDeliveryLatency() {
+        return LatencyRecorder.get(context).getDeliverySnapshot();
+    }
+
+    /**
+     * Get the time from a message reaching this device until its notification was posted
+     * @return Percentiles over messages displayed on this install, within the telemetry retention age
+     */
+    public LatencySnapshot getDisplayLatency() {
+        return LatencyRecorder.get(context).getDisplaySnapshot();
+    }
+
+    /**
+     * Limit how much data the SDK keeps on the device
+     * Applied by a background job while the device is idle and charging; the setting is persisted.
+     * @param dataSet The data the policy applies to
+     * @param policy Maximum age, entry count and size - see RetentionPolicy.defaults(dataSet)
+     */
+    public void setRetentionPolicy(RetentionPolicy.DataSet dataSet, RetentionPolicy policy) {
+        DataCompactor.setPolicy(context, dataSet, policy);
+    }
+
+    /**
+     * @return The policy currently applied to a data set
+     */
+    public RetentionPolicy getRetentionPolicy(RetentionPolicy.DataSet dataSet) {
+        return DataCompactor.getPolicy(context, dataSet);
+    }
+
+    /**
+     * Called by the compaction job - the outbox only exists once the SDK is initialized
+     * @return Number of queued writes dropped
+     */
+    static int compactOutbox(RetentionPolicy policy) {
+        PushNotificationManager manager;
+        synchronized (PushNotificationManager.class) {
+            manager = instance;
+        }
+        return manager != null ? manager.outbox.compact(policy) : 0;
+    }
+
+    // Collapse bursts of token changes into a single re-registration
+    private void scheduleReRegistration() {
+        mainHandler.removeCallbacks(reRegistrationRunnable);
+        mainHandler.postDelayed(reRegistrationRunnable, RE_REGISTRATION_DEBOUNCE_MS);
+    }
+
+    private void reRegisterWithCachedToken() {
+        String token = TokenStore.get(context);
+        // In a fresh process the app may not have set a user yet - use the profile registered last time
+        UserInfo user = currentUser != null ? currentUser : profileStore.getRegistered();
+        if (user == null || token == null) {
+            Log.d("PushSDK", "ℹ️ Token rotated but no user is registered yet - skipping re-registration");
+            return;
+        }
+        Log.d("PushSDK", "🔄 Re-registering device after token rotation");
+        registerToServerInternal(token, user);
+    }
+
     /**
      * @deprecated Use registerUser(UserInfo) instead
      */
@@ -298,127 +511,199 @@ public class PushNotificationManager {
         Log.d("PushSDK", "🎯 Interests: " + userInfo.getInterests());
         Log.d("PushSDK", "🆔 App ID: " + appId);
 
-        // First get the clientId from the server
-        PushApiService service = ApiClient.getService();
-        Log.d("PushSDK", "🔍 Requesting Client ID for App ID: " + appId);
-        getClientIdWithRetry(service, appId, token, userInfo, 0);
+        RegisterDeviceRequest request = new RegisterDeviceRequest(token, appId, null, userInfo);
+        profileStore.setRegistered(token, userInfo);
+        // A full registration carries the whole profile, so pending profile updates are redundant
+        outbox.enqueue(new OutboxEntry(OutboxEntry.KEY_REGISTRATION, OutboxEntry.TYPE_REGISTER,
+                outbox.toPayload(request)), OutboxEntry.KEY_PROFILE);
     }
 
-    // Method to retry getting Client ID with exponential backoff
-    private void getClientIdWithRetry(PushApiService service, String appId, String token, UserInfo userInfo, int retryCount) {
-        final int maxRetries = 3;
-        final int baseDelay = 2000; // 2 seconds
+    // Internal method for updating user info
+    private void updateUserInfoInternal(String token, UserInfo userInfo) {
+        UpdateDeviceRequest request = new UpdateDeviceRequest(token, userInfo);
+        profileStore.setRegistered(token, userInfo);
+        outbox.enqueue(new OutboxEntry(OutboxEntry.KEY_PROFILE, OutboxEntry.TYPE_UPDATE_PROFILE,
+                outbox.toPayload(request)));
+    }
 
-        if (retryCount >= maxRetries) {
-            Log.e("PushSDK", "❌ Max retries reached for getting Client ID");
-            return;
+    /**
+     * Send one queued write to the server. Runs on the outbox thread.
+     */
+    private OfflineOutbox.Result dispatchOutboxEntry(OutboxEntry entry) throws IOException {
+        PushApiService service = ApiClient.getService();
+        if (!OutboxEntry.TYPE_UPLOAD_RECEIPTS.equals(entry.getType())
+                && ReceiptRecorder.get(context).hasPending()) {
+            // The radio and connection are already up for this write - send pending receipts right after it
+            mainHandler.removeCallbacks(receiptUploadRunnable);
+            uploadReceipts();
         }
+        switch (entry.getType()) {
+            case OutboxEntry.TYPE_REGISTER:
+                return dispatchRegistration(service, outbox.readPayload(entry, RegisterDeviceRequest.class));
+
+            case OutboxEntry.TYPE_UPDATE_PROFILE:
+                return dispatchProfileUpdate(service, outbox.readPayload(entry, UpdateDeviceRequest.class));
+
+            case OutboxEntry.TYPE_UPDATE_LOCATION: {
+                UpdateLocationRequest request = outbox.readPayload(entry, UpdateLocationRequest.class);
+                Response<Void> response = service.updateDeviceLocation(request).execute();
+                logOutboxResponse("Location update", response);
+                return toOutboxResult(response);
+            }
 
-        Log.d("PushSDK", "🔄 Attempt " + (retryCount + 1) + "/" + maxRetries + " to get Client ID");
-
-        service.getClientIdByAppId(appId).enqueue(new Callback<ClientIdResponse>() {
-            @Override
-            public void onResponse(Call<ClientIdResponse> call, Response<ClientIdResponse> response) {
-                Log.d("PushSDK", "📡 Client ID response received. Code: " + response.code());
-                if (response.isSuccessful() && response.body() != null) {
-                    String clientId = response.body().getClientId();
-                    Log.d("PushSDK", "✅ Retrieved Client ID: " + clientId);
-
-                    // Now register the device with the clientId
-                    Log.d("PushSDK", "📝 Creating RegisterDeviceRequest with:");
-                    Log.d("PushSDK", "   Token: " + token.substring(0, Math.min(10, token.length())) + "...");
-                    Log.d("PushSDK", "   AppId: " + appId);
-                    Log.d("PushSDK", "   ClientId: " + clientId);
-                    Log.d("PushSDK", "   UserInfo: " + (userInfo != null ? userInfo.getUserId() : "null"));
-
-                    RegisterDeviceRequest request = new RegisterDeviceRequest(token, appId, clientId, userInfo);
-                    service.registerDevice(request).enqueue(new Callback<Void>() {
-                        @Override
-                        public void onResponse(Call<Void> call, Response<Void> response) {
-                            if (response.isSuccessful()) {
-                                Log.d("PushSDK", "✅ Device registered successfully to server");
-                                Log.d("PushSDK", "🎉 Ready to receive notifications!");
-                            } else {
-                                Log.e("PushSDK", "❌ Server registration failed with code: " + response.code());
-                                try {
-                                    String errorBody = response.errorBody() != null ? response.errorBody().string() : "No error body";
-                                    Log.e("PushSDK", "❌ Error details: " + errorBody);
-                                } catch (Exception e) {
-                                    Log.e("PushSDK", "❌ Could not read error body", e);
-                                }
-                            }
-                        }
-
-                        @Override
-                        public void onFailure(Call<Void> call, Throwable t) {
-                            Log.e("PushSDK", "❌ Network failure during registration", t);
-                            Log.e("PushSDK", "🌐 Check internet connection and server availability");
-                        }
-                    });
-                } else {
-                    Log.e("PushSDK", "❌ Failed to get Client ID. Response code: " + response.code());
-                    try {
-                        String errorBody = response.errorBody() != null ? response.errorBody().string() : "No error body";
-                        Log.e("PushSDK", "❌ Error details: " + errorBody);
-                    } catch (Exception e) {
-                        Log.e("PushSDK", "❌ Could not read error body", e);
-                    }
+            case OutboxEntry.TYPE_UPDATE_LOCATION_BATCH: {
+                UpdateLocationBatchRequest request = outbox.readPayload(entry, UpdateLocationBatchRequest.class);
+                Response<Void> response = service.updateDeviceLocationBatch(request).execute();
+                logOutboxResponse("Location batch update (" + request.getPoints().size() + " points)", response);
+                return toOutboxResult(response);
+            }
 
-                    // Retry if it's a server error (5xx) or timeout
-                    if (response.code() >= 500 || response.code() == 408) {
-                        scheduleRetry(service, appId, token, userInfo, retryCount, baseDelay);
-                    }
-                }
+            case OutboxEntry.TYPE_UNREGISTER: {
+                Response<Void> response = service.unregisterDevice(
+                        outbox.readPayload(entry, String.class)).execute();
+                logOutboxResponse("Unregister", response);
+                // Already gone on the server counts as done
+                return response.code() == 404 ? OfflineOutbox.Result.DONE : toOutboxResult(response);
             }
 
-            @Override
-            public void onFailure(Call<ClientIdResponse> call, Throwable t) {
-                Log.e("PushSDK", "❌ Network failure while getting Client ID (attempt " + (retryCount + 1) + ")", t);
+            case OutboxEntry.TYPE_DELETE_NOTIFICATION: {
+                Response<Void> response = service.deleteNotification(
+                        outbox.readPayload(entry, String.class)).execute();
+                logOutboxResponse("Notification delete", response);
+                return response.code() == 404 ? OfflineOutbox.Result.DONE : toOutboxResult(response);
+            }
 
-                // Check if it's a network issue that might be resolved with retry
-                if (t instanceof java.net.SocketException ||
-                    t instanceof java.net.ConnectException ||
-                    t instanceof java.net.UnknownHostException ||
-                    t instanceof javax.net.ssl.SSLException) {
+            case OutboxEntry.TYPE_UPLOAD_RECEIPTS: {
+                ReceiptBatchRequest request = outbox.readPayload(entry, ReceiptBatchRequest.class);
+                Response<Void> response = service.uploadReceipts(request).execute();
+                logOutboxResponse("Receipt upload (" + request.getEvents().size() + " events)", response);
+                return toOutboxResult(response);
+            }
 
-                    Log.d("PushSDK", "🔄 Network issue detected, will retry...");
-                    scheduleRetry(service, appId, token, userInfo, retryCount, baseDelay);
-                } else {
-                    Log.e("PushSDK", "❌ Non-retryable error: " + t.getClass().getSimpleName());
-                }
+            case OutboxEntry.TYPE_UPLOAD_LATENCY: {
+                Response<Void> response = service.uploadLatencyStats(
+                        outbox.readPayload(entry, LatencyUploadRequest.class)).execute();
+                logOutboxResponse("Latency stats upload", response);
+                return toOutboxResult(response);
             }
-        });
+
+            default:
+                Log.w("PushSDK", "⚠️ Unknown outbox entry type: " + entry.getType());
+                return OfflineOutbox.Result.DROP;
+        }
     }
 
-    private void scheduleRetry(PushApiService service, String appId, String token, UserInfo userInfo, int retryCount, int baseDelay) {
-        int delay = baseDelay * (int) Math.pow(2, retryCount); // Exponential backoff
-        Log.d("PushSDK", "⏰ Scheduling retry in " + delay + "ms");
+    // Register with the cached clientId when we have one, otherwise bootstrap in a single call
+    private OfflineOutbox.Result dispatchRegistration(PushApiService service, RegisterDeviceRequest pending) throws IOException {
+        String token = pending.getToken();
+        UserInfo userInfo = pending.getUserInfo();
+
+        String cachedClientId = clientIdStore.get(appId);
+        if (cachedClientId != null) {
+            Log.d("PushSDK", "🆔 Using cached Client ID: " + cachedClientId);
+            Response<Void> response = service.registerDevice(
+                    new RegisterDeviceRequest(token, appId, cachedClientId, userInfo)).execute();
+            if (response.isSuccessful()) {
+                // Registration rewrites the whole profile, so the next update starts from a full sync
+                profileStore.clear();
+                Log.d("PushSDK", "✅ Device registered successfully to server");
+                Log.d("PushSDK", "🎉 Ready to receive notifications!");
+                return OfflineOutbox.Result.DONE;
+            }
+            if (!isClientIdRejected(response.code())) {
+                Log.e("PushSDK", "❌ Server registration failed with code: " + response.code());
+                logErrorBody(response);
+                return toOutboxResult(response);
+            }
+            // The cached clientId is stale - drop it and let the server resolve it again
+            Log.w("PushSDK", "⚠️ Server rejected cached Client ID (" + response.code() + ") - re-bootstrapping");
+            clientIdStore.clear(appId);
+        }
 
-        new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-            getClientIdWithRetry(service, appId, token, userInfo, retryCount + 1);
-        }, delay);
+        Log.d("PushSDK", "🔍 Bootstrapping registration for App ID: " + appId);
+        Response<RegisterDeviceResponse> response = service.bootstrapDevice(
+                new RegisterDeviceRequest(token, appId, null, userInfo)).execute();
+        if (response.isSuccessful() && response.body() != null) {
+            String clientId = response.body().getClientId();
+            clientIdStore.put(appId, clientId);
+            profileStore.clear();
+            Log.d("PushSDK", "✅ Device registered successfully to server (Client ID: " + clientId + ")");
+            Log.d("PushSDK", "🎉 Ready to receive notifications!");
+            return OfflineOutbox.Result.DONE;
+        }
+        Log.e("PushSDK", "❌ Device bootstrap failed. Response code: " + response.code());
+        logErrorBody(response);
+        return toOutboxResult(response);
     }
 
-    // Internal method for updating user info
-    private void updateUserInfoInternal(String token, UserInfo userInfo) {
-        PushApiService service = ApiClient.getService();
-        UpdateDeviceRequest request = new UpdateDeviceRequest(token, userInfo);
+    // Send only the fields that changed since the last acknowledged profile, falling back to a full update
+    private OfflineOutbox.Result dispatchProfileUpdate(PushApiService service, UpdateDeviceRequest desired) throws IOException {
+        String token = desired.getToken();
+        UserInfo acknowledged = profileStore.getAcknowledged(token);
 
-        service.updateDeviceInfo(request).enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                if (response.isSuccessful()) {
-                    Log.d("PushSDK", "✅ Device info updated successfully");
-                } else {
-                    Log.e("PushSDK", "❌ Update failed: " + response.code());
-                }
+        if (acknowledged != null) {
+            ProfilePatchRequest patch = ProfilePatchRequest.diff(token, acknowledged, desired.getUserInfo());
+            if (patch == null) {
+                Log.d("PushSDK", "ℹ️ Profile unchanged - nothing to send");
+                return OfflineOutbox.Result.DONE;
             }
 
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
-                Log.e("PushSDK", "❌ Network error during update", t);
+            String ifMatch = "\"" + profileStore.getVersion() + "\"";
+            Response<ProfileVersionResponse> response = service.patchDeviceProfile(ifMatch, patch).execute();
+            if (response.isSuccessful() && response.body() != null) {
+                profileStore.acknowledge(token, desired.getUserInfo(), response.body().getVersion());
+                Log.d("PushSDK", "✅ Profile patched (version " + response.body().getVersion() + ")");
+                return OfflineOutbox.Result.DONE;
             }
-        });
+            if (response.code() != 412) {
+                logOutboxResponse("Profile patch", response);
+                return toOutboxResult(response);
+            }
+            // Someone else changed the profile - resync it in full
+            Log.w("PushSDK", "⚠️ Profile version conflict - sending full profile");
+            profileStore.clear();
+        }
+
+        Response<ProfileVersionResponse> response = service.updateDeviceInfo(desired).execute();
+        logOutboxResponse("Device info update", response);
+        if (response.isSuccessful()) {
+            long version = response.body() != null ? response.body().getVersion() : 0;
+            profileStore.acknowledge(token, desired.getUserInfo(), version);
+        }
+        return toOutboxResult(response);
+    }
+
+    private boolean isClientIdRejected(int code) {
+        return code == 400 || code == 403 || code == 404 || code == 409;
+    }
+
+    // Server errors (5xx), timeouts and throttling are worth retrying - other client errors are not
+    private OfflineOutbox.Result toOutboxResult(Response<?> response) {
+        if (response.isSuccessful()) {
+            return OfflineOutbox.Result.DONE;
+        }
+        int code = response.code();
+        if (code >= 500 || code == 408 || code == 429) {
+            return OfflineOutbox.Result.RETRY;
+        }
+        return OfflineOutbox.Result.DROP;
+    }
+
+    private void logOutboxResponse(String operation, Response<?> response) {
+        if (response.isSuccessful()) {
+            Log.d("PushSDK", "✅ " + operation + " succeeded");
+        } else {
+            Log.e("PushSDK", "❌ " + operation + " failed: " + response.code());
+        }
+    }
+
+    private void logErrorBody(Response<?> response) {
+        try {
+            String errorBody = response.errorBody() != null ? response.errorBody().string() : "No error body";
+            Log.e("PushSDK", "❌ Error details: " + errorBody);
+        } catch (Exception e) {
+            Log.e("PushSDK", "❌ Could not read error body", e);
+        }
     }
 
     /**
@@ -449,7 +734,7 @@ public class PushNotificationManager {
         Log.d("PushSDK", "🔄 Loading interests configuration from server for app: " + appId);
 
         PushApiService service = ApiClient.getService();
-        service.getApplicationInterestsConfig(appId).enqueue(new Callback<InterestsConfigResponse>() {
+        CachedRead.load(cacheControl -> service.getApplicationInterestsConfig(appId, cacheControl), new Callback<InterestsConfigResponse>() {
             @Override
             public void onResponse(Call<InterestsConfigResponse> call, Response<InterestsConfigResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -732,22 +1017,10 @@ public class PushNotificationManager {
         getToken(new OnTokenReceivedListener() {
             @Override
             public void onTokenReceived(String token) {
-                PushApiService service = ApiClient.getService();
-                service.unregisterDevice(token).enqueue(new Callback<Void>() {
-                    @Override
-                    public void onResponse(Call<Void> call, Response<Void> response) {
-                        if (response.isSuccessful()) {
-                            Log.d("PushSDK", "✅ Device unregistered successfully");
-                        } else {
-                            Log.e("PushSDK", "❌ Failed to unregister device. Code: " + response.code());
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<Void> call, Throwable t) {
-                        Log.e("PushSDK", "❌ Network error during unregister", t);
-                    }
-                });
+                profileStore.clearRegistered();
+                // Pending registration, profile and location writes are moot once the device is gone
+                outbox.enqueue(new OutboxEntry(OutboxEntry.KEY_REGISTRATION, OutboxEntry.TYPE_UNREGISTER,
+                        outbox.toPayload(token)), OutboxEntry.KEY_PROFILE, OutboxEntry.KEY_LOCATION);
             }
 
             @Override
@@ -757,6 +1030,16 @@ public class PushNotificationManager {
         });
     }
 
+    /**
+     * Delete a notification from the device's history on the server
+     * The delete is queued and retried until the server confirms it
+     * @param notificationId ID of the notification log entry
+     */
+    public void deleteNotification(String notificationId) {
+        outbox.enqueue(new OutboxEntry(OutboxEntry.KEY_DELETE_PREFIX + notificationId,
+                OutboxEntry.TYPE_DELETE_NOTIFICATION, outbox.toPayload(notificationId)));
+    }
+
     /**
      * Update user location in the database
      * @param token Device token
@@ -775,36 +1058,49 @@ public class PushNotificationManager {
      * @param lng Longitude
      */
     public void updateUserLocation(String token, double lat, double lng) {
-        PushApiService apiService = ApiClient.getService();
         UpdateLocationRequest request = new UpdateLocationRequest(token, lat, lng);
-        Call<Void> call = apiService.updateDeviceLocation(request);
-
-        call.enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                if (response.isSuccessful()) {
-                    Log.d("PushSDK", "✅ Location updated in database: " + lat + ", " + lng);
-                    // Update current user location if available
-                    if (currentUser != null) {
-                        currentUser = new UserInfo(
-                                currentUser.getUserId(),
-                                currentUser.getGender(),
-                                currentUser.getAge(),
-                                currentUser.getInterests(),
-                                lat,
-                                lng
-                        );
-                    }
-                } else {
-                    Log.e("PushSDK", "❌ Failed to update location: " + response.code());
-                }
-            }
+        // Only the latest location matters - a newer fix replaces any pending one
+        outbox.enqueue(new OutboxEntry(OutboxEntry.KEY_LOCATION, OutboxEntry.TYPE_UPDATE_LOCATION,
+                outbox.toPayload(request)));
+
+        // Update current user location if available
+        if (currentUser != null) {
+            currentUser = new UserInfo(
+                    currentUser.getUserId(),
+                    currentUser.getGender(),
+                    currentUser.getAge(),
+                    currentUser.getInterests(),
+                    lat,
+                    lng
+            );
+        }
+    }
 
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
-                Log.e("PushSDK", "❌ Network error updating location", t);
-            }
-        });
+    /**
+     * Upload several buffered location fixes in a single request
+     * @param token Device token
+     * @param points Timestamped fixes, oldest first
+     */
+    public void updateUserLocations(String token, List<LocationPoint> points) {
+        if (points == null || points.isEmpty()) {
+            return;
+        }
+        UpdateLocationBatchRequest request = new UpdateLocationBatchRequest(token, points);
+        // The server keeps the latest position, so a newer batch replaces any pending one
+        outbox.enqueue(new OutboxEntry(OutboxEntry.KEY_LOCATION, OutboxEntry.TYPE_UPDATE_LOCATION_BATCH,
+                outbox.toPayload(request)));
+
+        LocationPoint latest = request.getLatestPoint();
+        if (currentUser != null && latest != null) {
+            currentUser = new UserInfo(
+                    currentUser.getUserId(),
+                    currentUser.getGender(),
+                    currentUser.getAge(),
+                    currentUser.getInterests(),
+                    latest.getLat(),
+                    latest.getLng()
+            );
+        }
     }
 
     // Callback interface for notification permission results
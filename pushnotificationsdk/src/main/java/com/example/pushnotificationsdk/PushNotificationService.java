@@ -1,149 +1,118 @@
 package com.example.pushnotificationsdk;
 
-import android.Manifest;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
-import android.content.Intent;
-import android.content.pm.PackageManager;
-import android.os.Build;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
-import androidx.core.app.ActivityCompat;
-import androidx.core.app.NotificationCompat;
-import androidx.core.app.NotificationManagerCompat;
 
 import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
 
+import java.util.Map;
+
 public class PushNotificationService extends FirebaseMessagingService {
 
     private static final String TAG = "PushNotificationService";
-    private static final String CHANNEL_ID = "push_notification_channel";
+    // Time allowed from message arrival to notify() before we warn - keeps bursts well inside FCM's processing window
+    private static final long RECEIVE_BUDGET_MS = 100;
+    // Images must be ready this long after arrival, or the message is shown as text - well inside
+    // the ~10 seconds FCM allows before the process may be stopped
+    private static final long IMAGE_DEADLINE_MS = 4000;
 
     @Override
     public void onCreate() {
         super.onCreate();
-        Log.d(TAG, "🚀 PushNotificationService CREATED!");
-        Log.e(TAG, "🚀 PushNotificationService CREATED!"); // Also at ERROR level to ensure it appears
-        System.out.println("🚀 PushNotificationService CREATED!");
+        // onCreate runs on the main thread - the SDK singletons are created by the first message, on FCM's worker thread
+        SdkLog.d(TAG, "🚀 PushNotificationService created");
     }
 
     @Override
     public void onNewToken(@NonNull String token) {
         super.onNewToken(token);
-        Log.d(TAG, "🔄 FCM Token refreshed: " + token.substring(0, Math.min(20, token.length())) + "...");
-        Log.d(TAG, "📱 Full new token: " + token);
-        System.out.println("🔄 FCM Token refreshed: " + token);
-        Log.e(TAG, "🔄 FCM Token refreshed: " + token); // Also at ERROR level
-        // Here you can send the token to the server if needed
+        if (SdkLog.isLoggable(Log.DEBUG)) {
+            SdkLog.d(TAG, "🔄 FCM Token refreshed: " + token.substring(0, Math.min(20, token.length())) + "...");
+        }
+        // Cache the new token and re-register the device with it
+        PushNotificationManager.onTokenRefreshed(getApplicationContext(), token);
     }
 
     @Override
     public void onMessageReceived(@NonNull RemoteMessage remoteMessage) {
         super.onMessageReceived(remoteMessage);
-
-        long receiveTime = System.currentTimeMillis();
-        Log.d(TAG, "🔔 NOTIFICATION RECEIVED!");
-        System.out.println("🔔 NOTIFICATION RECEIVED!");
-        Log.e(TAG, "🔔 NOTIFICATION RECEIVED!"); // Also at ERROR level to ensure it appears
-        Log.d(TAG, "📤 From: " + remoteMessage.getFrom());
-        Log.d(TAG, "🕒 Receive timestamp: " + receiveTime);
-        Log.d(TAG, "🕒 Server timestamp: " + remoteMessage.getSentTime());
-        Log.d(TAG, "⏱️ Delivery delay: " + (receiveTime - remoteMessage.getSentTime()) + "ms");
-        Log.d(TAG, "📦 Data payload size: " + remoteMessage.getData().size());
-        
+        long arrivedAt = SystemClock.elapsedRealtime();
+        long sentTime = remoteMessage.getSentTime();
+        // Device and server clocks may disagree - a message can't arrive before it was sent
+        long deliveryDelay = sentTime > 0 ? Math.max(0, System.currentTimeMillis() - sentTime) : -1;
+
+        String title;
+        String body;
+        String collapseKey;
+        String imageUrl;
+        Map<String, String> data = remoteMessage.getData();
+        RemoteMessage.Notification notification = remoteMessage.getNotification();
         // If there is a Notification message (not just Data)
-        if (remoteMessage.getNotification() != null) {
-            String title = remoteMessage.getNotification().getTitle();
-            String body = remoteMessage.getNotification().getBody();
-            Log.d(TAG, "📝 Notification Title: " + title);
-            Log.d(TAG, "📄 Notification Body: " + body);
-            showNotification(title, body);
-        }
-        // If there is Data (message without Notification)
-        else if (!remoteMessage.getData().isEmpty()) {
-            String title = remoteMessage.getData().get("title");
-            String body = remoteMessage.getData().get("body");
-            Log.d(TAG, "📦 Data Title: " + title);
-            Log.d(TAG, "📦 Data Body: " + body);
-            showNotification(title, body);
+        if (notification != null) {
+            title = notification.getTitle();
+            body = notification.getBody();
+            collapseKey = notification.getTag();
+            imageUrl = notification.getImageUrl() != null ? notification.getImageUrl().toString() : null;
         } else {
-            Log.w(TAG, "⚠️ Received message without notification or data payload");
+            // If there is Data (message without Notification)
+            if (data.isEmpty()) {
+                SdkLog.w(TAG, "⚠️ Received message without notification or data payload");
+                return;
+            }
+            title = data.get("title");
+            body = data.get("body");
+            collapseKey = data.get("collapseKey");
+            imageUrl = data.get("imageUrl");
         }
-    }
 
-    private void showNotification(String title, String body) {
-        Log.d(TAG, "🔔 Showing notification: " + title);
-        createNotificationChannel();
-
-        // Intent to open the app when the user clicks on the notification
-        Intent intent = new Intent(this, getApplicationContext().getClass());
-        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
-
-        PendingIntent pendingIntent = PendingIntent.getActivity(this, 0, intent, PendingIntent.FLAG_ONE_SHOT | PendingIntent.FLAG_IMMUTABLE);
-
-        // Building the notification with maximum priority settings for immediate delivery
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
-                .setSmallIcon(android.R.drawable.ic_dialog_info)  // Small icon for the notification
-                .setContentTitle(title != null ? title : "Notification")  // Notification title
-                .setContentText(body != null ? body : "")  // Notification body
-                .setPriority(NotificationCompat.PRIORITY_MAX)  // Maximum priority for immediate display
-                .setCategory(NotificationCompat.CATEGORY_MESSAGE)  // Message category
-                .setDefaults(NotificationCompat.DEFAULT_ALL)  // Default sound, vibration, lights
-                .setVibrate(new long[]{0, 250, 250, 250})  // Custom vibration pattern
-                .setLights(0xFF0000FF, 300, 100)  // Blue light
-                .setContentIntent(pendingIntent)  // Button to open the app when clicked on the notification
-                .setAutoCancel(true)  // The notification will be dismissed when clicked
-                .setOnlyAlertOnce(false)  // Always alert, even for updates
-                .setShowWhen(true)  // Show timestamp
-                .setWhen(System.currentTimeMillis())  // Set current time
-                .setTimeoutAfter(0)  // Never timeout
-                .setFullScreenIntent(pendingIntent, false);  // High priority for immediate display
-
-        // Displaying the notification
-        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this);
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
-            Log.e(TAG, "❌ POST_NOTIFICATIONS permission not granted!");
+        // Redeliveries and token + topic copies of the same campaign are dropped before rendering
+        String messageId = remoteMessage.getMessageId();
+        String campaignId = data.get("campaignId");
+        if (!MessageDeduplicator.get(this).markIfNew(
+                messageId != null ? "m:" + messageId : null,
+                campaignId != null ? "c:" + campaignId : null,
+                collapseKey != null ? "k:" + collapseKey + ":" + sentTime : null)) {
+            SdkLog.d(TAG, "🔁 Duplicate message dropped");
             return;
         }
 
-        int notificationId = (int) System.currentTimeMillis();
-        notificationManager.notify(notificationId, builder.build());
-        Log.d(TAG, "✅ Notification displayed with ID: " + notificationId);
-    }
+        if (campaignId != null) {
+            PushNotificationManager.recordReceipt(this, ReceiptEvent.RECEIVED, campaignId);
+        }
 
-    private void createNotificationChannel() {
-        // Creating a notification channel for Android 8 and above with maximum priority
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            CharSequence name = "Push Notification Channel";
-            String description = "Channel for push notifications";
-            int importance = NotificationManager.IMPORTANCE_HIGH;
-            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, name, importance);
-            channel.setDescription(description);
-
-            // Enable all notification features for immediate delivery
-            channel.enableLights(true);
-            channel.setLightColor(0xFF0000FF); // Blue light
-            channel.enableVibration(true);
-            channel.setVibrationPattern(new long[]{0, 250, 250, 250});
-            channel.setShowBadge(true);
-            channel.setLockscreenVisibility(NotificationCompat.VISIBILITY_PUBLIC);
-            channel.setBypassDnd(true); // Bypass Do Not Disturb
-            channel.setSound(android.provider.Settings.System.DEFAULT_NOTIFICATION_URI, null);
-
-            // Enable bubbles and other high-priority features
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                channel.setAllowBubbles(true);
-            }
+        // Cached images are instant; otherwise wait for the download until the deadline, then fall back to text
+        long mediaStart = SystemClock.elapsedRealtime();
+        long imageDeadline = arrivedAt + IMAGE_DEADLINE_MS;
+        NotificationImageCache imageCache = NotificationImageCache.get(this);
+        Bitmap icon = imageCache.load(data.get("iconUrl"), imageDeadline);
+        Bitmap image = imageCache.load(imageUrl, imageDeadline);
+        long mediaElapsed = SystemClock.elapsedRealtime() - mediaStart;
 
-            // Creating the channel in the OS
-            NotificationManager notificationManager = getSystemService(NotificationManager.class);
-            if (notificationManager != null) {
-                notificationManager.createNotificationChannel(channel);
-                Log.d(TAG, "✅ High-priority notification channel created");
+        // Channel, launch intent and builder template are set up once, by the first message
+        int notificationId = NotificationRenderer.get(this).show(title, body, collapseKey, campaignId, image, icon);
+
+        long elapsed = SystemClock.elapsedRealtime() - arrivedAt;
+        if (elapsed - mediaElapsed > RECEIVE_BUDGET_MS) {
+            SdkLog.w(TAG, "⚠️ Message took " + elapsed + "ms to display (budget " + RECEIVE_BUDGET_MS + "ms)");
+        }
+        if (SdkLog.isLoggable(Log.DEBUG)) {
+            SdkLog.d(TAG, "🔔 Displayed message " + remoteMessage.getMessageId() + " as #" + notificationId
+                    + " in " + elapsed + "ms (delivery delay " + deliveryDelay + "ms)");
+        }
+
+        if (notificationId != -1) {
+            // Kept on the device so the history screen does not need the network to show it
+            NotificationHistoryManager.get(this).addNotification(NotificationHistoryManager.fromReceivedMessage(title, body, sentTime, campaignId));
+            if (campaignId != null) {
+                PushNotificationManager.recordReceipt(this, ReceiptEvent.DISPLAYED, campaignId);
             }
         }
+        if (LatencyRecorder.get(this).record(deliveryDelay, notificationId != -1 ? elapsed : -1)) {
+            PushNotificationManager.onLatencyBatchReady();
+        }
     }
 }
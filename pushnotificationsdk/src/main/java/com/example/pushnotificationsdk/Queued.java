@@ -0,0 +1,16 @@
+package com.example.pushnotificationsdk;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a PushApiService write that is only sent by the OfflineOutbox
+ * The outbox retries it with its own backoff, so RetryInterceptor does not retry it again
+ * (its circuit breaker still applies).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@interface Queued {
+}
@@ -0,0 +1,30 @@
+package com.example.pushnotificationsdk;
+
+import java.util.List;
+
+/**
+ * Request class for uploading a batch of notification receipts in one call
+ */
+public class ReceiptBatchRequest {
+    private String token;
+    private String appId;
+    private List<ReceiptEvent> events;
+
+    public ReceiptBatchRequest(String token, String appId, List<ReceiptEvent> events) {
+        this.token = token;
+        this.appId = appId;
+        this.events = events;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public List<ReceiptEvent> getEvents() {
+        return events;
+    }
+}
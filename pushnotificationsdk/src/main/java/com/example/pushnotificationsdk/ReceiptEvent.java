@@ -0,0 +1,33 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * Something that happened to a notification on the device, reported in batches
+ */
+public class ReceiptEvent {
+    public static final String RECEIVED = "received";
+    public static final String DISPLAYED = "displayed";
+    public static final String OPENED = "opened";
+    public static final String DISMISSED = "dismissed";
+
+    private String campaignId;
+    private String event;
+    private long timestamp;
+
+    public ReceiptEvent(String campaignId, String event, long timestamp) {
+        this.campaignId = campaignId;
+        this.event = event;
+        this.timestamp = timestamp;
+    }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
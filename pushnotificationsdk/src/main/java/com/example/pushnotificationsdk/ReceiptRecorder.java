@@ -0,0 +1,157 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persisted queue of notification receipts (received, displayed, opened, dismissed)
+ * Events are only collected here; PushNotificationManager drains them into the outbox
+ * as a single batch on a jittered schedule, or alongside another write.
+ */
+class ReceiptRecorder {
+
+    private static final String TAG = "PushSDK";
+    private static final String PREFS_NAME = "PushSDKReceiptPrefs";
+    private static final String EVENTS_KEY = "pending_events";
+
+    // Upload right away once this many events are pending
+    static final int UPLOAD_BATCH_SIZE = 100;
+    // Oldest events are dropped beyond this - receipts are statistics, not worth unbounded storage
+    private static final int MAX_PENDING = 1000;
+
+    private static volatile ReceiptRecorder instance;
+
+    private final SharedPreferences sharedPreferences;
+    private final Gson gson;
+    private final List<ReceiptEvent> pending;
+
+    static ReceiptRecorder get(Context context) {
+        ReceiptRecorder result = instance;
+        if (result == null) {
+            synchronized (ReceiptRecorder.class) {
+                if (instance == null) {
+                    instance = new ReceiptRecorder(context.getApplicationContext());
+                }
+                result = instance;
+            }
+        }
+        return result;
+    }
+
+    private ReceiptRecorder(Context context) {
+        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        gson = JsonCodecs.gson();
+        pending = load();
+    }
+
+    /**
+     * Record an event for one or more campaigns
+     * @param campaignIds Campaigns the event applies to; null entries are ignored
+     * @return true if a full batch is pending and should be uploaded now
+     */
+    synchronized boolean record(String event, String... campaignIds) {
+        long now = System.currentTimeMillis();
+        boolean added = false;
+        for (String campaignId : campaignIds) {
+            if (campaignId != null && !contains(campaignId, event)) {
+                pending.add(new ReceiptEvent(campaignId, event, now));
+                added = true;
+            }
+        }
+        if (!added) {
+            return false;
+        }
+        if (pending.size() > MAX_PENDING) {
+            pending.subList(0, pending.size() - MAX_PENDING).clear();
+        }
+        persist();
+        return pending.size() >= UPLOAD_BATCH_SIZE;
+    }
+
+    synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Hand the pending events over for upload
+     * @return The batch request, or null if nothing is pending
+     */
+    synchronized ReceiptBatchRequest drainPending(String token, String appId) {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        ReceiptBatchRequest request = new ReceiptBatchRequest(token, appId, new ArrayList<>(pending));
+        pending.clear();
+        persist();
+        return request;
+    }
+
+    /**
+     * Drop the oldest pending events beyond the policy's limits
+     * @return Number of events dropped
+     */
+    synchronized int compact(RetentionPolicy policy) {
+        int before = pending.size();
+        if (policy.getMaxAgeMillis() > 0) {
+            long cutoff = System.currentTimeMillis() - policy.getMaxAgeMillis();
+            pending.removeIf(event -> event.getTimestamp() < cutoff);
+        }
+        int keep = pending.size();
+        if (policy.getMaxEntries() > 0) {
+            keep = Math.min(keep, policy.getMaxEntries());
+        }
+        if (policy.getMaxBytes() > 0 && !pending.isEmpty()) {
+            // Events are similar in size - scale the count to the byte budget
+            long bytes = gson.toJson(pending).length();
+            if (bytes > policy.getMaxBytes()) {
+                keep = Math.min(keep, (int) (pending.size() * policy.getMaxBytes() / bytes));
+            }
+        }
+        if (keep < pending.size()) {
+            pending.subList(0, pending.size() - keep).clear();
+        }
+        int dropped = before - pending.size();
+        if (dropped > 0) {
+            persist();
+        }
+        return dropped;
+    }
+
+    // A campaign is opened or dismissed once - repeated events (e.g. a redelivered intent) are not counted twice
+    private boolean contains(String campaignId, String event) {
+        for (ReceiptEvent existing : pending) {
+            if (existing.getCampaignId().equals(campaignId) && existing.getEvent().equals(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<ReceiptEvent> load() {
+        String json = sharedPreferences.getString(EVENTS_KEY, null);
+        if (json != null) {
+            try {
+                Type type = new TypeToken<List<ReceiptEvent>>(){}.getType();
+                List<ReceiptEvent> stored = gson.fromJson(json, type);
+                if (stored != null) {
+                    return new ArrayList<>(stored);
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "❌ Discarding unreadable receipts", e);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private void persist() {
+        sharedPreferences.edit().putString(EVENTS_KEY, gson.toJson(pending)).apply();
+    }
+}
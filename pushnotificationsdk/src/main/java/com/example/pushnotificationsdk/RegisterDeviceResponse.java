@@ -0,0 +1,26 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * Response of the combined bootstrap/register call - carries the clientId the server resolved for the app
+ */
+public class RegisterDeviceResponse {
+    private String message;
+    private String clientId;
+    private String appId;
+
+    public RegisterDeviceResponse() {
+        // Default constructor for JSON deserialization
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+}
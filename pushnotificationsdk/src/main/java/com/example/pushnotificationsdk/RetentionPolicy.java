@@ -0,0 +1,104 @@
+package com.example.pushnotificationsdk;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits for data the SDK keeps on the device
+ * Pass an instance to PushNotificationManager.setRetentionPolicy(dataSet, policy). Limits are
+ * enforced by a background compaction job that runs while the device is idle and charging,
+ * so data may briefly exceed them between runs. A limit of 0 means unlimited.
+ */
+public class RetentionPolicy {
+
+    /**
+     * The kinds of data a policy can apply to
+     */
+    public enum DataSet {
+        HISTORY,    // Notification history shown by NotificationHistoryActivity
+        OUTBOX,     // Writes queued while offline (deletes, stats uploads)
+        TELEMETRY   // Latency histograms and notification receipts not yet uploaded
+    }
+
+    private final long maxAgeMillis;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private RetentionPolicy(Builder builder) {
+        this.maxAgeMillis = builder.maxAgeMillis;
+        this.maxEntries = builder.maxEntries;
+        this.maxBytes = builder.maxBytes;
+    }
+
+    /**
+     * @return The SDK's default limits for a data set
+     */
+    public static RetentionPolicy defaults(DataSet dataSet) {
+        switch (dataSet) {
+            case HISTORY:
+                return new Builder()
+                        .setMaxAge(90, TimeUnit.DAYS)
+                        .setMaxEntries(5000)
+                        .setMaxBytes(5L * 1024 * 1024)
+                        .build();
+            case OUTBOX:
+                return new Builder()
+                        .setMaxAge(14, TimeUnit.DAYS)
+                        .setMaxEntries(200)
+                        .setMaxBytes(512 * 1024)
+                        .build();
+            default:
+                return new Builder()
+                        .setMaxAge(30, TimeUnit.DAYS)
+                        .setMaxEntries(1000)
+                        .setMaxBytes(128 * 1024)
+                        .build();
+        }
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    // Builder pattern for easy configuration
+    public static class Builder {
+        private long maxAgeMillis;
+        private int maxEntries;
+        private long maxBytes;
+
+        public Builder setMaxAge(long duration, TimeUnit unit) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("Max age must be >= 0");
+            }
+            this.maxAgeMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        public Builder setMaxEntries(int maxEntries) {
+            if (maxEntries < 0) {
+                throw new IllegalArgumentException("maxEntries must be >= 0");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public Builder setMaxBytes(long maxBytes) {
+            if (maxBytes < 0) {
+                throw new IllegalArgumentException("maxBytes must be >= 0");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        public RetentionPolicy build() {
+            return new RetentionPolicy(this);
+        }
+    }
+}
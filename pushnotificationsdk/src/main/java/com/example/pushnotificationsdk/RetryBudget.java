@@ -0,0 +1,34 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * Caps retries to a fraction of recent traffic (token bucket)
+ * Every request deposits a fraction of a token and every retry withdraws a whole one,
+ * so during an outage retries add at most that fraction on top of normal load.
+ */
+class RetryBudget {
+
+    private final double depositPerRequest;
+    private final double maxTokens;
+    private double tokens;
+
+    RetryBudget(double retryRatio, int maxTokens) {
+        this.depositPerRequest = retryRatio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + depositPerRequest);
+    }
+
+    /**
+     * @return true if a retry may be made now
+     */
+    synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
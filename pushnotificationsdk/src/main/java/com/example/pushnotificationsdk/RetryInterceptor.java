@@ -0,0 +1,172 @@
+package com.example.pushnotificationsdk;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Applies the configured RetryPolicy, retry budget and per-endpoint circuit breakers to every SDK call
+ * Only idempotent methods are retried; every call counts towards its endpoint's circuit breaker.
+ * Endpoints are identified by their PushApiService method, so one failing endpoint
+ * doesn't block the others.
+ * The two retry layers split the work: calls the app is waiting on are retried here, within the
+ * call, while @Queued writes get a single attempt and are retried later by the OfflineOutbox.
+ */
+class RetryInterceptor implements Interceptor {
+
+    private static final String TAG = "PushSDK";
+    private static final double RETRY_RATIO = 0.2;
+    private static final int MAX_RETRY_TOKENS = 10;
+
+    private final RetryPolicy retryPolicy;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private final long probeTimeoutMillis;
+    private final RetryBudget retryBudget = new RetryBudget(RETRY_RATIO, MAX_RETRY_TOKENS);
+    private final ConcurrentHashMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    RetryInterceptor(TransportConfig config) {
+        this.retryPolicy = config.getRetryPolicy();
+        this.failureThreshold = config.getCircuitFailureThreshold();
+        this.openDurationMillis = config.getCircuitOpenMillis();
+        // A probe cannot legitimately take longer than one connect plus one read
+        this.probeTimeoutMillis = config.getConnectTimeoutMillis() + config.getReadTimeoutMillis();
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        // Cache-only reads (CachedRead) never reach the network - a cold cache's 504 is not a server failure
+        if (request.cacheControl().onlyIfCached()) {
+            return chain.proceed(request);
+        }
+        String endpoint = ApiClient.endpointOf(request);
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(endpoint,
+                key -> new CircuitBreaker(failureThreshold, openDurationMillis, probeTimeoutMillis));
+        boolean retryable = isIdempotent(request.method()) && !isQueued(request);
+        retryBudget.onRequest();
+
+        int attempt = 0;
+        while (true) {
+            if (!circuitBreaker.allowRequest()) {
+                throw new CircuitOpenException(endpoint, circuitBreaker.getRemainingOpenMillis());
+            }
+            attempt++;
+
+            Response response = null;
+            IOException error = null;
+            boolean outcomeRecorded = false;
+            try {
+                try {
+                    response = chain.proceed(request);
+                } catch (IOException e) {
+                    if (chain.call().isCanceled()) {
+                        throw e;
+                    }
+                    error = e;
+                }
+
+                if (response != null && response.networkResponse() == null) {
+                    // Answered from the HTTP cache - says nothing about the server, and is not retried
+                    return response;
+                }
+                if (response == null || response.code() >= 500) {
+                    circuitBreaker.recordFailure();
+                } else {
+                    // 4xx (including 408/429) means the server is up and answering
+                    circuitBreaker.recordSuccess();
+                }
+                outcomeRecorded = true;
+            } finally {
+                // Canceled, served from cache or failed unexpectedly - a probe must not stay in flight forever
+                if (!outcomeRecorded) {
+                    circuitBreaker.releaseProbe();
+                }
+            }
+
+            int statusCode = response != null ? response.code() : 0;
+            if (response != null && response.isSuccessful()) {
+                return response;
+            }
+
+            long retryAfterMillis = response != null ? retryAfterMillis(response) : -1;
+            long delay = retryable
+                    ? retryPolicy.getRetryDelayMillis(attempt, statusCode, retryAfterMillis)
+                    : RetryPolicy.NO_RETRY;
+            if (delay == RetryPolicy.NO_RETRY || !retryBudget.tryAcquire()) {
+                if (response != null) {
+                    return response;
+                }
+                throw error;
+            }
+
+            if (response != null) {
+                response.close();
+            }
+            Log.d(TAG, "🔁 Retrying " + endpoint + " in " + delay + "ms (attempt " + (attempt + 1)
+                    + ", last " + (statusCode != 0 ? "status " + statusCode : error.getClass().getSimpleName()) + ")");
+            sleep(delay);
+            if (chain.call().isCanceled()) {
+                throw new IOException("Canceled");
+            }
+        }
+    }
+
+    // A POST may have been applied before the connection dropped (e.g. $inc counters) - only these are safe
+    // to resend. Queued writes are retried by the outbox instead.
+    private static boolean isIdempotent(String method) {
+        switch (method) {
+            case "GET":
+            case "HEAD":
+            case "OPTIONS":
+            case "PUT":
+            case "DELETE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // The outbox backs off between attempts on its own thread - retrying here too would multiply the attempts
+    private static boolean isQueued(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(Queued.class);
+    }
+
+    // Retry-After is either a number of seconds or an HTTP date. Package-private for tests.
+    static long retryAfterMillis(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate("Retry-After");
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : -1;
+        }
+    }
+
+    private static void sleep(long delayMillis) throws InterruptedIOException {
+        if (delayMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * Decides whether, and after how long, a failed SDK request is attempted again
+ * Applied to every PushApiService call through TransportConfig.Builder.setRetryPolicy(...)
+ */
+public interface RetryPolicy {
+
+    /** Returned by getRetryDelayMillis to stop retrying */
+    long NO_RETRY = -1;
+
+    /**
+     * @param attempt Number of attempts made so far (1 after the first failure)
+     * @param statusCode HTTP status of the failed attempt, or 0 if it failed with a network error
+     * @param retryAfterMillis Delay requested by the server's Retry-After header, or -1 if none was sent
+     * @return Milliseconds to wait before the next attempt, or NO_RETRY to give up
+     */
+    long getRetryDelayMillis(int attempt, int statusCode, long retryAfterMillis);
+
+    /**
+     * @return Policy that never retries
+     */
+    static RetryPolicy none() {
+        return (attempt, statusCode, retryAfterMillis) -> NO_RETRY;
+    }
+}
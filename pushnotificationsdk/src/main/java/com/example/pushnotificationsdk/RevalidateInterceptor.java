@@ -0,0 +1,31 @@
+package com.example.pushnotificationsdk;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that keeps GET responses the server did not label in the HTTP cache
+ * Labelled the same way as the backend's revalidate middleware: stale at once, so normal requests
+ * revalidate with If-None-Match, while only-if-cached reads with max-stale can still use the stored copy.
+ * (no-cache would make OkHttp refuse every only-if-cached read with a 504.)
+ */
+class RevalidateInterceptor implements Interceptor {
+
+    static final String CACHE_CONTROL = "private, max-age=0";
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if ("GET".equals(chain.request().method()) && response.header("Cache-Control") == null) {
+            return response.newBuilder()
+                    .header("Cache-Control", CACHE_CONTROL)
+                    .build();
+        }
+        return response;
+    }
+}
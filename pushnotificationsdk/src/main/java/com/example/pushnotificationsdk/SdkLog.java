@@ -0,0 +1,52 @@
+package com.example.pushnotificationsdk;
+
+import android.util.Log;
+
+/**
+ * Level-gated logging for hot SDK paths (message receive, rendering)
+ * Messages below the configured level are skipped before any string is built,
+ * as long as callers check isLoggable() first for messages that need concatenation.
+ */
+public final class SdkLog {
+
+    private static volatile int level = Log.INFO;
+
+    private SdkLog() {
+    }
+
+    /**
+     * Set the minimum priority written to logcat
+     * @param priority One of Log.VERBOSE, Log.DEBUG, Log.INFO, Log.WARN, Log.ERROR
+     */
+    public static void setLevel(int priority) {
+        level = priority;
+    }
+
+    public static boolean isLoggable(int priority) {
+        return priority >= level;
+    }
+
+    static void d(String tag, String message) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, message);
+        }
+    }
+
+    static void i(String tag, String message) {
+        if (isLoggable(Log.INFO)) {
+            Log.i(tag, message);
+        }
+    }
+
+    static void w(String tag, String message) {
+        if (isLoggable(Log.WARN)) {
+            Log.w(tag, message);
+        }
+    }
+
+    static void e(String tag, String message) {
+        if (isLoggable(Log.ERROR)) {
+            Log.e(tag, message);
+        }
+    }
+}
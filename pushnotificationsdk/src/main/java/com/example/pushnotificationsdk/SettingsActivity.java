@@ -69,7 +69,7 @@ public class SettingsActivity extends AppCompatActivity {
             @Override
             public void onTokenReceived(String token) {
                 PushApiService service = ApiClient.getService();
-                service.getDeviceInfoByToken(token).enqueue(new Callback<UserInfoResponse>() {
+                CachedRead.load(cacheControl -> service.getDeviceInfoByToken(token, cacheControl), new Callback<UserInfoResponse>() {
                     @Override
                     public void onResponse(Call<UserInfoResponse> call, Response<UserInfoResponse> response) {
                         if (response.isSuccessful() && response.body() != null) {
@@ -0,0 +1,32 @@
+package com.example.pushnotificationsdk;
+
+/**
+ * Simple token bucket: up to capacity events at once, refilled at a steady rate
+ * Callers pass the current time (SystemClock.elapsedRealtime) so no clock is read here.
+ */
+class TokenBucket {
+
+    private final int capacity;
+    private final long refillIntervalMillis;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, long refillIntervalMillis, long now) {
+        this.capacity = capacity;
+        this.refillIntervalMillis = refillIntervalMillis;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    synchronized boolean tryAcquire(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / refillIntervalMillis);
+            lastRefill = now;
+        }
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
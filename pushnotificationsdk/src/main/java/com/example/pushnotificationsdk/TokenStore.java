@@ -0,0 +1,56 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * In-memory and persisted cache of the device's FCM token
+ * Filled at SDK start and kept current from PushNotificationService.onNewToken
+ */
+class TokenStore {
+
+    private static final String PREFS_NAME = "PushSDKTokenPrefs";
+    private static final String TOKEN_KEY = "fcm_token";
+
+    private static volatile String cachedToken;
+    private static volatile boolean loaded;
+
+    private TokenStore() {
+    }
+
+    /**
+     * @return The last known token, or null if none has been fetched yet
+     */
+    static String get(Context context) {
+        if (!loaded) {
+            synchronized (TokenStore.class) {
+                if (!loaded) {
+                    cachedToken = prefs(context).getString(TOKEN_KEY, null);
+                    loaded = true;
+                }
+            }
+        }
+        return cachedToken;
+    }
+
+    /**
+     * Store a token
+     * @return true if it differs from the previously cached token
+     */
+    static synchronized boolean update(Context context, String token) {
+        if (token == null || token.isEmpty()) {
+            return false;
+        }
+        String previous = get(context);
+        if (token.equals(previous)) {
+            return false;
+        }
+        cachedToken = token;
+        prefs(context).edit().putString(TOKEN_KEY, token).apply();
+        return true;
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
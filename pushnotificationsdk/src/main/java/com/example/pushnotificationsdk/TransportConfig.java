@@ -0,0 +1,286 @@
+package com.example.pushnotificationsdk;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Network transport settings used by the SDK's shared HTTP client
+ * Pass an instance to PushNotificationManager.initialize(context, appId, config)
+ */
+public class TransportConfig {
+
+    /**
+     * How much of each request/response is written to logcat
+     */
+    public enum LogLevel {
+        NONE,
+        BASIC,
+        HEADERS,
+        BODY
+    }
+
+    private final int maxIdleConnections;
+    private final long keepAliveMillis;
+    private final boolean http2Enabled;
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final LogLevel logLevel;
+    private final long httpCacheSizeBytes;
+    private final RetryPolicy retryPolicy;
+    private final int circuitFailureThreshold;
+    private final long circuitOpenMillis;
+    private final boolean adaptiveTimeoutsEnabled;
+    private final double timeoutMultiplier;
+    private final long minTimeoutMillis;
+    private final boolean hedgedReadsEnabled;
+    private final boolean compactWireFormatEnabled;
+
+    private TransportConfig(Builder builder) {
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAliveMillis = builder.keepAliveMillis;
+        this.http2Enabled = builder.http2Enabled;
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.readTimeoutMillis = builder.readTimeoutMillis;
+        this.logLevel = builder.logLevel;
+        this.httpCacheSizeBytes = builder.httpCacheSizeBytes;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitFailureThreshold = builder.circuitFailureThreshold;
+        this.circuitOpenMillis = builder.circuitOpenMillis;
+        this.adaptiveTimeoutsEnabled = builder.adaptiveTimeoutsEnabled;
+        this.timeoutMultiplier = builder.timeoutMultiplier;
+        this.minTimeoutMillis = builder.minTimeoutMillis;
+        this.hedgedReadsEnabled = builder.hedgedReadsEnabled;
+        this.compactWireFormatEnabled = builder.compactWireFormatEnabled;
+    }
+
+    /**
+     * @return Configuration with the SDK defaults (no body logging, HTTP/2 enabled)
+     */
+    public static TransportConfig defaults() {
+        return new Builder().build();
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public long getHttpCacheSizeBytes() {
+        return httpCacheSizeBytes;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+
+    public long getCircuitOpenMillis() {
+        return circuitOpenMillis;
+    }
+
+    public boolean isAdaptiveTimeoutsEnabled() {
+        return adaptiveTimeoutsEnabled;
+    }
+
+    public double getTimeoutMultiplier() {
+        return timeoutMultiplier;
+    }
+
+    public long getMinTimeoutMillis() {
+        return minTimeoutMillis;
+    }
+
+    public boolean isHedgedReadsEnabled() {
+        return hedgedReadsEnabled;
+    }
+
+    public boolean isCompactWireFormatEnabled() {
+        return compactWireFormatEnabled;
+    }
+
+    // Builder pattern for easy configuration
+    public static class Builder {
+        private int maxIdleConnections = 2;
+        private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+        private boolean http2Enabled = true;
+        private int maxRequests = 16;
+        private int maxRequestsPerHost = 4;
+        private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+        private long readTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+        private LogLevel logLevel = LogLevel.NONE;
+        private long httpCacheSizeBytes = 5L * 1024 * 1024;
+        private RetryPolicy retryPolicy = ExponentialBackoffRetryPolicy.defaults();
+        private int circuitFailureThreshold = 5;
+        private long circuitOpenMillis = TimeUnit.SECONDS.toMillis(30);
+        private boolean adaptiveTimeoutsEnabled = true;
+        private double timeoutMultiplier = 3.0;
+        private long minTimeoutMillis = TimeUnit.SECONDS.toMillis(2);
+        private boolean hedgedReadsEnabled = false;
+        private boolean compactWireFormatEnabled = false;
+
+        public Builder setMaxIdleConnections(int maxIdleConnections) {
+            if (maxIdleConnections < 0) {
+                throw new IllegalArgumentException("maxIdleConnections must be >= 0");
+            }
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        public Builder setKeepAlive(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("Keep-alive duration must be positive");
+            }
+            this.keepAliveMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        public Builder setHttp2Enabled(boolean enabled) {
+            this.http2Enabled = enabled;
+            return this;
+        }
+
+        public Builder setMaxRequests(int maxRequests) {
+            if (maxRequests < 1) {
+                throw new IllegalArgumentException("maxRequests must be >= 1");
+            }
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        public Builder setMaxRequestsPerHost(int maxRequestsPerHost) {
+            if (maxRequestsPerHost < 1) {
+                throw new IllegalArgumentException("maxRequestsPerHost must be >= 1");
+            }
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        public Builder setConnectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder setReadTimeout(long timeout, TimeUnit unit) {
+            this.readTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder setLogLevel(LogLevel logLevel) {
+            this.logLevel = logLevel != null ? logLevel : LogLevel.NONE;
+            return this;
+        }
+
+        /**
+         * Size of the on-disk HTTP cache used for read endpoints. 0 disables caching.
+         */
+        public Builder setHttpCacheSize(long bytes) {
+            if (bytes < 0) {
+                throw new IllegalArgumentException("HTTP cache size must be >= 0");
+            }
+            this.httpCacheSizeBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Policy applied to every SDK call. Use RetryPolicy.none() to disable retries.
+         */
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy != null ? retryPolicy : RetryPolicy.none();
+            return this;
+        }
+
+        /**
+         * Open an endpoint's circuit after this many consecutive failures, and keep it open for the given time
+         */
+        public Builder setCircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+            if (failureThreshold < 1) {
+                throw new IllegalArgumentException("failureThreshold must be >= 1");
+            }
+            if (openDuration <= 0) {
+                throw new IllegalArgumentException("Open duration must be positive");
+            }
+            this.circuitFailureThreshold = failureThreshold;
+            this.circuitOpenMillis = unit.toMillis(openDuration);
+            return this;
+        }
+
+        /**
+         * Bound each endpoint's timeouts by a multiple of its recently observed p99 latency.
+         * The connect/read timeouts remain the upper limit.
+         */
+        public Builder setAdaptiveTimeouts(boolean enabled) {
+            this.adaptiveTimeoutsEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * @param multiplier Deadline as a multiple of the observed p99 (default 3)
+         * @param minTimeout Deadlines never go below this
+         */
+        public Builder setAdaptiveTimeouts(double multiplier, long minTimeout, TimeUnit unit) {
+            if (multiplier < 1) {
+                throw new IllegalArgumentException("Timeout multiplier must be >= 1");
+            }
+            if (minTimeout <= 0) {
+                throw new IllegalArgumentException("Minimum timeout must be positive");
+            }
+            this.adaptiveTimeoutsEnabled = true;
+            this.timeoutMultiplier = multiplier;
+            this.minTimeoutMillis = unit.toMillis(minTimeout);
+            return this;
+        }
+
+        /**
+         * Send a second copy of slow history and interests reads once they exceed the endpoint's p95
+         */
+        public Builder setHedgedReads(boolean enabled) {
+            this.hedgedReadsEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Use the compact binary (CBOR) encoding for registration and location uploads.
+         */
+        public Builder setCompactWireFormat(boolean enabled) {
+            this.compactWireFormatEnabled = enabled;
+            return this;
+        }
+
+        public TransportConfig build() {
+            return new TransportConfig(this);
+        }
+    }
+}
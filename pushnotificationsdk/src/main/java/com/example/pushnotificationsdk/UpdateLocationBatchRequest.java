@@ -0,0 +1,39 @@
+package com.example.pushnotificationsdk;
+
+import java.util.List;
+
+/**
+ * Request class for uploading several buffered location fixes in one call
+ */
+public class UpdateLocationBatchRequest {
+    private String token;
+    private List<LocationPoint> points;
+
+    public UpdateLocationBatchRequest(String token, List<LocationPoint> points) {
+        this.token = token;
+        this.points = points;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public List<LocationPoint> getPoints() {
+        return points;
+    }
+
+    /**
+     * @return The most recent point in the batch, or null if the batch is empty
+     */
+    public LocationPoint getLatestPoint() {
+        LocationPoint latest = null;
+        if (points != null) {
+            for (LocationPoint point : points) {
+                if (latest == null || point.getTimestamp() > latest.getTimestamp()) {
+                    latest = point;
+                }
+            }
+        }
+        return latest;
+    }
+}
@@ -3,6 +3,13 @@ package com.example.pushnotificationsdk;
 public class UserInfoResponse {
     private UserInfo userInfo;
 
+    public UserInfoResponse() {
+    }
+
+    public UserInfoResponse(UserInfo userInfo) {
+        this.userInfo = userInfo;
+    }
+
     public UserInfo getUserInfo() {
         return userInfo;
     }
@@ -0,0 +1,193 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.RequestBody;
+import okio.Buffer;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * CBOR request bodies - CborWriter and CborConverterFactory.
+ * Each expected encoding is what cborBody() in backend/src/middlewares/cborMiddleware.js decodes
+ * back into the request shown, so a change to either key table breaks these tests.
+ */
+public class CborCodecTest {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    // cborBody(LOCATION_SCHEMA) -> { token: "tok", lat: 32.0853, lng: 34.7818 }
+    private static final String BACKEND_LOCATION =
+            "a30163746f6b02fb40400aeb1c432ca503fb4041641205bc01a3";
+
+    // cborBody(REGISTER_SCHEMA) -> { token, appId, clientId, userInfo: { userId, gender, age: 30, interests, lat, lng } }
+    private static final String BACKEND_REGISTER =
+            "a40163746f6b0263617070036363696404a601627531026666656d616c6503181e04826673706f727473656d757369"
+                    + "6305fb40400aeb1c432ca506fb4041641205bc01a3";
+
+    // cborBody(LOCATION_BATCH_SCHEMA) -> { token: "tok", points: [{ lat, lng, timestamp }, ...] }
+    private static final String BACKEND_LOCATION_BATCH =
+            "a20163746f6b028283fb40400aeb1c432ca5fb4041641205bc01a31b0000018e3741250083fbc040ef34d6a161e5fb"
+                    + "4062e6b295e9e1b11b0000018e37420f60";
+
+    // ---------- Requests ----------
+
+    @Test
+    public void locationRequest_matchesBackendEncoding() throws IOException {
+        Buffer encoded = encode(new UpdateLocationRequest("tok", 32.0853, 34.7818));
+
+        assertEquals(BACKEND_LOCATION, encoded.readByteString().hex());
+    }
+
+    @Test
+    public void registerRequest_matchesBackendEncoding() throws IOException {
+        UserInfo userInfo = new UserInfo("u1", "female", 30, Arrays.asList("sports", "music"), 32.0853, 34.7818);
+        Buffer encoded = encode(new RegisterDeviceRequest("tok", "app", "cid", userInfo));
+
+        assertEquals(BACKEND_REGISTER, encoded.readByteString().hex());
+    }
+
+    @Test
+    public void registerRequest_leavesOutDefaults() throws IOException {
+        UserInfo userInfo = new UserInfo(null, null, 0, Collections.emptyList(), 0, 0);
+        Buffer encoded = encode(new RegisterDeviceRequest("tok", "app", null, userInfo));
+
+        // { 1: "tok", 2: "app", 4: {} }
+        assertEquals("a30163746f6b026361707004a0", encoded.readByteString().hex());
+    }
+
+    @Test
+    public void locationBatchRequest_matchesBackendEncoding() throws IOException {
+        List<LocationPoint> points = Arrays.asList(
+                new LocationPoint(32.0853, 34.7818, 1710324000000L),
+                new LocationPoint(-33.8688, 151.2093, 1710324060000L));
+        Buffer encoded = encode(new UpdateLocationBatchRequest("tok", points));
+
+        assertEquals(BACKEND_LOCATION_BATCH, encoded.readByteString().hex());
+    }
+
+    @Test
+    public void locationBatchRequest_withoutPoints_sendsEmptyArray() throws IOException {
+        Buffer encoded = encode(new UpdateLocationBatchRequest("tok", null));
+
+        assertEquals("a20163746f6b0280", encoded.readByteString().hex());
+    }
+
+    @Test
+    public void otherRequests_areLeftToJson() {
+        assertNull(new CborConverterFactory().requestBodyConverter(
+                UpdateDeviceRequest.class, NO_ANNOTATIONS, NO_ANNOTATIONS, null));
+    }
+
+    // ---------- Writer edge cases ----------
+
+    @Test
+    public void writer_unsignedHeadBoundaries() {
+        assertEquals("00", hex(w -> w.value(0)));
+        assertEquals("17", hex(w -> w.value(23)));
+        assertEquals("1818", hex(w -> w.value(24)));
+        assertEquals("18ff", hex(w -> w.value(255)));
+        assertEquals("190100", hex(w -> w.value(256)));
+        assertEquals("19ffff", hex(w -> w.value(65535)));
+        assertEquals("1a00010000", hex(w -> w.value(65536)));
+        assertEquals("1affffffff", hex(w -> w.value(0xffffffffL)));
+        assertEquals("1b0000000100000000", hex(w -> w.value(0x100000000L)));
+        assertEquals("1b7fffffffffffffff", hex(w -> w.value(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void writer_negativeIntegers() {
+        assertEquals("20", hex(w -> w.value(-1)));
+        assertEquals("37", hex(w -> w.value(-24)));
+        assertEquals("3818", hex(w -> w.value(-25)));
+        assertEquals("38ff", hex(w -> w.value(-256)));
+        assertEquals("390100", hex(w -> w.value(-257)));
+        assertEquals("39ffff", hex(w -> w.value(-65536)));
+        assertEquals("3a00010000", hex(w -> w.value(-65537)));
+        assertEquals("3b7fffffffffffffff", hex(w -> w.value(Long.MIN_VALUE)));
+    }
+
+    @Test
+    public void writer_textLengthBoundaries() throws IOException {
+        assertTextHead(0, "60");
+        assertTextHead(23, "77");
+        assertTextHead(24, "7818");
+        assertTextHead(255, "78ff");
+        assertTextHead(256, "790100");
+        assertTextHead(65535, "79ffff");
+        assertTextHead(65536, "7a00010000");
+    }
+
+    @Test
+    public void writer_textLengthCountsUtf8Bytes() throws IOException {
+        // Hebrew letters take two bytes each - the head holds the byte count, not the character count
+        String hebrew = "התראה חדשה";
+        int bytes = hebrew.getBytes(java.nio.charset.StandardCharsets.UTF_8).length;
+        Buffer buffer = new Buffer();
+        new CborWriter(buffer).value(hebrew);
+
+        assertEquals(19, bytes);
+        assertEquals(0x60 | bytes, buffer.readByte() & 0xff);
+        assertEquals(hebrew, buffer.readUtf8());
+    }
+
+    @Test
+    public void writer_containerHeadBoundaries() {
+        assertEquals("97", hex(w -> w.beginArray(23)));
+        assertEquals("9818", hex(w -> w.beginArray(24)));
+        assertEquals("b8ff", hex(w -> w.beginMap(255)));
+        assertEquals("b90100", hex(w -> w.beginMap(256)));
+    }
+
+    @Test
+    public void writer_doublesAndNull() {
+        assertEquals("fb3ff8000000000000", hex(w -> w.value(1.5)));
+        assertEquals("fbc010666666666666", hex(w -> w.value(-4.1)));
+        assertEquals("f6", hex(CborWriter::nullValue));
+        assertEquals("f6", hex(w -> w.value((String) null)));
+    }
+
+    // ---------- Helpers ----------
+
+    private interface Writes {
+        void write(CborWriter writer);
+    }
+
+    private static String hex(Writes writes) {
+        Buffer buffer = new Buffer();
+        writes.write(new CborWriter(buffer));
+        return buffer.readByteString().hex();
+    }
+
+    private static void assertTextHead(int length, String head) throws IOException {
+        Buffer buffer = new Buffer();
+        new CborWriter(buffer).value("x".repeat(length));
+
+        assertEquals(head, buffer.readByteString(head.length() / 2).hex());
+        assertEquals(length, buffer.size());
+    }
+
+    private static Buffer encode(Object request) throws IOException {
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl("http://localhost/")
+                .addConverterFactory(new CborConverterFactory())
+                .addConverterFactory(GsonConverterFactory.create(JsonCodecs.gson()))
+                .build();
+        Converter<Object, RequestBody> converter =
+                retrofit.requestBodyConverter(request.getClass(), NO_ANNOTATIONS, NO_ANNOTATIONS);
+        RequestBody body = converter.convert(request);
+        assertEquals(CborConverterFactory.MEDIA_TYPE, body.contentType());
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * CircuitBreaker state transitions, driven by a fake clock
+ */
+public class CircuitBreakerTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_DURATION = 30_000;
+    private static final long PROBE_TIMEOUT = 10_000;
+
+    private long now;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        breaker = new CircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION, PROBE_TIMEOUT, () -> now);
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(OPEN_DURATION, breaker.getRemainingOpenMillis());
+
+        now += 12_000;
+        assertEquals(OPEN_DURATION - 12_000, breaker.getRemainingOpenMillis());
+    }
+
+    @Test
+    public void successResetsFailureCount() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void letsOneProbeThroughAfterOpenPeriod() {
+        open();
+        now += OPEN_DURATION - 1;
+        assertFalse(breaker.allowRequest());
+
+        now += 1;
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(0, breaker.getRemainingOpenMillis());
+        // Only the probe - everything else keeps failing fast
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void successfulProbe_closesCircuit() {
+        startProbe();
+        breaker.recordSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedProbe_reopensForFullPeriod() {
+        startProbe();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(OPEN_DURATION, breaker.getRemainingOpenMillis());
+    }
+
+    @Test
+    public void canceledProbe_nextCallBecomesProbe() {
+        startProbe();
+        breaker.releaseProbe();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(0, breaker.getRemainingOpenMillis());
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void releaseProbe_fromAnotherThread_keepsProbe() throws InterruptedException {
+        startProbe();
+        Thread other = new Thread(breaker::releaseProbe);
+        other.start();
+        other.join();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void releaseProbe_withoutProbe_doesNothing() {
+        breaker.releaseProbe();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        open();
+        breaker.releaseProbe();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(OPEN_DURATION, breaker.getRemainingOpenMillis());
+    }
+
+    @Test
+    public void silentProbe_isReplacedAfterProbeTimeout() {
+        startProbe();
+        now += PROBE_TIMEOUT - 1;
+        assertFalse(breaker.allowRequest());
+
+        now += 1;
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // The replacement probe gets its own timeout
+        assertFalse(breaker.allowRequest());
+    }
+
+    private void open() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void startProbe() {
+        open();
+        now += OPEN_DURATION;
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.pushnotificationsdk;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Servers that reject CBOR bodies with 415 get the same write again as JSON
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CompactWireFallbackInterceptorTest {
+
+    private MockWebServer server;
+    private PushApiService service;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        CborConverterFactory cbor = new CborConverterFactory();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new CompactWireFallbackInterceptor(cbor))
+                .build();
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(cbor)
+                .addConverterFactory(GsonConverterFactory.create(JsonCodecs.gson()))
+                .build()
+                .create(PushApiService.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void acceptedCbor_isSentOnce() throws Exception {
+        server.enqueue(new MockResponse());
+
+        assertTrue(updateLocation().isSuccessful());
+
+        assertEquals("application/cbor", server.takeRequest().getHeader("Content-Type"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void unsupportedMediaType_resendsAsJson() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(415));
+        server.enqueue(new MockResponse());
+
+        assertTrue(updateLocation().isSuccessful());
+
+        assertEquals("application/cbor", server.takeRequest().getHeader("Content-Type"));
+        assertJsonLocation(server.takeRequest());
+    }
+
+    @Test
+    public void afterUnsupportedMediaType_laterCallsStartWithJson() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(415));
+        server.enqueue(new MockResponse());
+        server.enqueue(new MockResponse());
+        updateLocation();
+        server.takeRequest();
+        server.takeRequest();
+
+        assertTrue(updateLocation().isSuccessful());
+
+        assertJsonLocation(server.takeRequest());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void otherErrors_areNotResent() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(400));
+        server.enqueue(new MockResponse());
+
+        assertEquals(400, updateLocation().code());
+
+        assertEquals(1, server.getRequestCount());
+    }
+
+    private Response<Void> updateLocation() throws IOException {
+        return service.updateDeviceLocation(new UpdateLocationRequest("tok", 32.0853, 34.7818)).execute();
+    }
+
+    private static void assertJsonLocation(RecordedRequest request) {
+        assertEquals("application/json; charset=UTF-8", request.getHeader("Content-Type"));
+        JsonObject body = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonObject();
+        assertEquals("tok", body.get("token").getAsString());
+        assertEquals(32.0853, body.get("lat").getAsDouble(), 0);
+        assertEquals(34.7818, body.get("lng").getAsDouble(), 0);
+    }
+}
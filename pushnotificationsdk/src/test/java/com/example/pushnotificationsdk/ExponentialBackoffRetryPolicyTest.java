@@ -0,0 +1,173 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * ExponentialBackoffRetryPolicy, and the Retry-After parsing in RetryInterceptor that feeds it
+ */
+public class ExponentialBackoffRetryPolicyTest {
+
+    private static final int SAMPLES = 200;
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+
+    private final ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy.Builder()
+            .setMaxAttempts(5)
+            .setBaseDelay(100, TimeUnit.MILLISECONDS)
+            .setMaxDelay(1, TimeUnit.SECONDS)
+            .build();
+
+    @Test
+    public void defaults() {
+        ExponentialBackoffRetryPolicy defaults = ExponentialBackoffRetryPolicy.defaults();
+
+        assertEquals(3, defaults.getMaxAttempts());
+        assertEquals(500, defaults.getBaseDelayMillis());
+        assertEquals(10_000, defaults.getMaxDelayMillis());
+    }
+
+    @Test
+    public void retriesNetworkErrorsThrottlingAndServerErrors() {
+        for (int statusCode : new int[] {0, 408, 429, 500, 502, 503, 504}) {
+            assertNotEquals("status " + statusCode, RetryPolicy.NO_RETRY, policy.getRetryDelayMillis(1, statusCode, -1));
+        }
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() {
+        for (int statusCode : new int[] {400, 401, 403, 404, 409, 422}) {
+            assertEquals("status " + statusCode, RetryPolicy.NO_RETRY, policy.getRetryDelayMillis(1, statusCode, -1));
+        }
+    }
+
+    @Test
+    public void stopsAtMaxAttempts() {
+        assertNotEquals(RetryPolicy.NO_RETRY, policy.getRetryDelayMillis(4, 503, -1));
+        assertEquals(RetryPolicy.NO_RETRY, policy.getRetryDelayMillis(5, 503, -1));
+        assertEquals(RetryPolicy.NO_RETRY, policy.getRetryDelayMillis(6, 503, -1));
+    }
+
+    @Test
+    public void jitteredBackoff_staysWithinDoublingBound() {
+        long[] bounds = {100, 200, 400, 800};
+        for (int attempt = 1; attempt <= bounds.length; attempt++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                long delay = policy.getRetryDelayMillis(attempt, 503, -1);
+                assertTrue("attempt " + attempt + " delay " + delay, delay >= 0 && delay <= bounds[attempt - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void jitteredBackoff_isCappedAtMaxDelay() {
+        ExponentialBackoffRetryPolicy manyAttempts = new ExponentialBackoffRetryPolicy.Builder()
+                .setMaxAttempts(100)
+                .setBaseDelay(100, TimeUnit.MILLISECONDS)
+                .setMaxDelay(1, TimeUnit.SECONDS)
+                .build();
+        // Attempts past 63 would overflow an unbounded shift
+        for (int attempt : new int[] {5, 30, 64, 99}) {
+            for (int i = 0; i < SAMPLES; i++) {
+                long delay = manyAttempts.getRetryDelayMillis(attempt, 503, -1);
+                assertTrue("attempt " + attempt + " delay " + delay, delay >= 0 && delay <= 1000);
+            }
+        }
+    }
+
+    @Test
+    public void retryAfter_isHonoredWithinMaxDelay() {
+        assertEquals(0, policy.getRetryDelayMillis(1, 429, 0));
+        assertEquals(750, policy.getRetryDelayMillis(1, 429, 750));
+        assertEquals(1000, policy.getRetryDelayMillis(1, 503, 1000));
+    }
+
+    @Test
+    public void retryAfter_beyondMaxDelay_failsFast() {
+        assertEquals(RetryPolicy.NO_RETRY, policy.getRetryDelayMillis(1, 503, 1001));
+        assertEquals(RetryPolicy.NO_RETRY, policy.getRetryDelayMillis(1, 429, TimeUnit.HOURS.toMillis(1)));
+    }
+
+    @Test
+    public void retryAfter_doesNotOverrideNonRetryableStatus() {
+        assertEquals(RetryPolicy.NO_RETRY, policy.getRetryDelayMillis(1, 400, 500));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejectsZeroAttempts() {
+        new ExponentialBackoffRetryPolicy.Builder().setMaxAttempts(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejectsNonPositiveBaseDelay() {
+        new ExponentialBackoffRetryPolicy.Builder().setBaseDelay(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejectsNonPositiveMaxDelay() {
+        new ExponentialBackoffRetryPolicy.Builder().setMaxDelay(-1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void noneNeverRetries() {
+        assertEquals(RetryPolicy.NO_RETRY, RetryPolicy.none().getRetryDelayMillis(1, 503, -1));
+    }
+
+    // ---------- Retry-After ----------
+
+    @Test
+    public void retryAfterHeader_missing() {
+        assertEquals(-1, RetryInterceptor.retryAfterMillis(response(null)));
+    }
+
+    @Test
+    public void retryAfterHeader_seconds() {
+        assertEquals(3000, RetryInterceptor.retryAfterMillis(response("3")));
+        assertEquals(5000, RetryInterceptor.retryAfterMillis(response(" 5 ")));
+        assertEquals(0, RetryInterceptor.retryAfterMillis(response("0")));
+        // Negative values are clamped rather than treated as "no header"
+        assertEquals(0, RetryInterceptor.retryAfterMillis(response("-2")));
+    }
+
+    @Test
+    public void retryAfterHeader_httpDate() {
+        String inOneMinute = HTTP_DATE.format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(1));
+        long delay = RetryInterceptor.retryAfterMillis(response(inOneMinute));
+
+        // The header only has second precision, and a little time passes while the test runs
+        assertTrue("delay " + delay, delay > 55_000 && delay <= 60_000);
+    }
+
+    @Test
+    public void retryAfterHeader_pastDate_meansNow() {
+        assertEquals(0, RetryInterceptor.retryAfterMillis(response("Wed, 21 Oct 2015 07:28:00 GMT")));
+    }
+
+    @Test
+    public void retryAfterHeader_unparseable() {
+        assertEquals(-1, RetryInterceptor.retryAfterMillis(response("soon")));
+    }
+
+    private static Response response(String retryAfter) {
+        Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url("http://localhost/api/devices").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(503)
+                .message("Service Unavailable");
+        if (retryAfter != null) {
+            builder.header("Retry-After", retryAfter);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class HistoryTokenizerTest {
+
+    @Test
+    public void splitsOnEverythingButLettersAndDigits() {
+        assertEquals(Arrays.asList("50", "off", "today", "only", "shop", "example", "com"),
+                HistoryTokenizer.tokenize("50% off - today only! (shop.example.com)"));
+    }
+
+    @Test
+    public void foldsCase() {
+        assertEquals(Arrays.asList("weekend", "sale"), HistoryTokenizer.tokenize("WEEKEND Sale"));
+    }
+
+    @Test
+    public void removesAccents() {
+        assertEquals(Arrays.asList("cafe", "creme", "brulee"), HistoryTokenizer.tokenize("Café Crème Brûlée"));
+        assertEquals(Arrays.asList("nandu", "uber"), HistoryTokenizer.tokenize("Ñandú ÜBER"));
+        // Precomposed and combining forms index the same
+        assertEquals(HistoryTokenizer.tokenize("caf\u00e9"), HistoryTokenizer.tokenize("cafe\u0301"));
+    }
+
+    @Test
+    public void caseFoldingDoesNotDependOnLocale() {
+        // Dotted capital I lowercases to "i" plus a combining dot, which is then dropped
+        assertEquals(Collections.singletonList("istanbul"), HistoryTokenizer.tokenize("İstanbul"));
+    }
+
+    @Test
+    public void keepsNonLatinLetters() {
+        assertEquals(Arrays.asList("מבצע", "סוף", "שבוע"), HistoryTokenizer.tokenize("מבצע סוף-שבוע!"));
+        // Hebrew vowel points are marks, so pointed and unpointed text match
+        assertEquals(Collections.singletonList("שלום"), HistoryTokenizer.tokenize("שָׁלוֹם"));
+    }
+
+    @Test
+    public void cutsLongTerms() {
+        String code = "a".repeat(HistoryTokenizer.MAX_TERM_LENGTH + 10);
+
+        assertEquals(Arrays.asList("a".repeat(HistoryTokenizer.MAX_TERM_LENGTH), "x"),
+                HistoryTokenizer.tokenize(code + " x"));
+    }
+
+    @Test
+    public void emptyInput() {
+        assertTrue(HistoryTokenizer.tokenize(null).isEmpty());
+        assertTrue(HistoryTokenizer.tokenize("").isEmpty());
+        assertTrue(HistoryTokenizer.tokenize(" -!?. ").isEmpty());
+    }
+}
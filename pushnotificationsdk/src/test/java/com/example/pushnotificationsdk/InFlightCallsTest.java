@@ -0,0 +1,94 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+import static org.junit.Assert.*;
+
+/**
+ * Identical GETs sharing one network call - each caller must be able to read the result
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InFlightCallsTest {
+
+    interface HistoryService {
+        @GET("/history")
+        Call<Void> history();
+    }
+
+    private MockWebServer server;
+    private HistoryService service;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .build()
+                .create(HistoryService.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void sharedError_eachCallerReadsTheBody() throws Exception {
+        // Slow enough for the second call to join the first
+        server.enqueue(new MockResponse()
+                .setResponseCode(404)
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"error\":\"unknown token\"}")
+                .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+        CountDownLatch done = new CountDownLatch(2);
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        InFlightCalls.enqueue(service.history(), errorBodyInto(errors, "first", done));
+        InFlightCalls.enqueue(service.history(), errorBodyInto(errors, "second", done));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertEquals("404:application/json:{\"error\":\"unknown token\"}", errors.get("first"));
+        assertEquals("404:application/json:{\"error\":\"unknown token\"}", errors.get("second"));
+    }
+
+    private static Callback<Void> errorBodyInto(Map<String, String> errors, String caller, CountDownLatch done) {
+        return new Callback<Void>() {
+            @Override
+            public void onResponse(Call<Void> call, Response<Void> response) {
+                try {
+                    errors.put(caller, response.code() + ":" + response.errorBody().contentType() + ":"
+                            + response.errorBody().string());
+                } catch (IOException e) {
+                    errors.put(caller, e.toString());
+                }
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<Void> call, Throwable t) {
+                errors.put(caller, t.toString());
+                done.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.pushnotificationsdk;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Assume;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares reflective Gson against the streaming adapters in JsonCodecs on a large history response.
+ * The benchmark is ignored in the unit-test run - remove @Ignore to run it by hand. Only allocation
+ * is asserted; timings are in the failure message and are never compared, so slow machines cannot
+ * make it flaky.
+ */
+public class JsonCodecsBenchmark {
+
+    private static final int ENTRIES = 5000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final Type HISTORY = new TypeToken<List<NotificationLog>>(){}.getType();
+
+    @Test
+    public void streamingAdapters_decodeSameEntries() {
+        String json = buildHistory(ENTRIES);
+
+        List<NotificationLog> expected = new Gson().fromJson(json, HISTORY);
+        List<NotificationLog> actual = JsonCodecs.gson().fromJson(json, HISTORY);
+
+        assertEquals(ENTRIES, actual.size());
+        for (int i = 0; i < ENTRIES; i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getTitle(), actual.get(i).getTitle());
+            assertEquals(expected.get(i).getBody(), actual.get(i).getBody());
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getSentAt(), actual.get(i).getSentAt());
+            // Never displayed, so the streaming adapter skips them
+            assertNull(actual.get(i).getToken());
+            assertNull(actual.get(i).getFilters());
+        }
+    }
+
+    @Test
+    @Ignore("Benchmark - run manually")
+    public void benchmark_largeHistory() {
+        String json = buildHistory(ENTRIES);
+        Gson reflective = new Gson();
+        Gson streaming = JsonCodecs.gson();
+
+        Measurement reflectiveResult = measure(reflective, json);
+        Measurement streamingResult = measure(streaming, json);
+
+        Assume.assumeTrue("Thread allocation counting unavailable",
+                reflectiveResult.bytesPerDecode >= 0 && streamingResult.bytesPerDecode >= 0);
+        // The streaming adapters skip token and filters, so they must allocate less per decode
+        assertTrue("History with " + ENTRIES + " entries (" + json.length() / 1024 + " KB) - reflective: "
+                        + reflectiveResult + ", streaming: " + streamingResult,
+                streamingResult.bytesPerDecode < reflectiveResult.bytesPerDecode);
+    }
+
+    private static Measurement measure(Gson gson, String json) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            gson.fromJson(json, HISTORY);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int decoded = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            decoded += gson.<List<NotificationLog>>fromJson(json, HISTORY).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        assertEquals(ENTRIES * MEASURED_ROUNDS, decoded);
+        // Either reading may be -1 (unsupported or disabled) - never report a difference of the two
+        long bytesPerDecode = allocatedBefore < 0 || allocatedAfter < 0
+                ? -1
+                : (allocatedAfter - allocatedBefore) / MEASURED_ROUNDS;
+        return new Measurement(elapsed / MEASURED_ROUNDS, bytesPerDecode);
+    }
+
+    /**
+     * @return Bytes allocated by this thread so far, or -1 if the JVM cannot count them
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static String buildHistory(int entries) {
+        StringBuilder json = new StringBuilder(entries * 400);
+        json.append('[');
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"_id\":\"65f1c0ffee").append(String.format("%014d", i)).append('"')
+                    .append(",\"appId\":\"65f1c0ffee00000000000001\"")
+                    .append(",\"title\":\"Weekend sale #").append(i).append('"')
+                    .append(",\"body\":\"Up to 50% off selected items - tap to see what's new this week\"")
+                    .append(",\"type\":\"promotion\"")
+                    .append(",\"token\":\"fcm-token-").append("x".repeat(140)).append('"')
+                    .append(",\"filters\":{\"gender\":\"female\",\"ageRange\":{\"min\":18,\"max\":35},")
+                    .append("\"interests\":[\"sports\",\"music\",\"travel\"],")
+                    .append("\"location\":{\"lat\":32.0853,\"lng\":34.7818,\"radiusKm\":10}}")
+                    .append(",\"sentAt\":\"2024-03-13T10:").append(String.format("%02d", i % 60)).append(":00.000Z\"")
+                    .append(",\"__v\":0}");
+        }
+        json.append(']');
+        return json.toString();
+    }
+
+    private static final class Measurement {
+        final long nanosPerDecode;
+        final long bytesPerDecode;
+
+        Measurement(long nanosPerDecode, long bytesPerDecode) {
+            this.nanosPerDecode = nanosPerDecode;
+            this.bytesPerDecode = bytesPerDecode;
+        }
+
+        @Override
+        public String toString() {
+            String allocation = bytesPerDecode < 0 ? "n/a" : (bytesPerDecode / 1024) + " KB";
+            return (nanosPerDecode / 1000) + " us/decode, " + allocation + " allocated/decode";
+        }
+    }
+}
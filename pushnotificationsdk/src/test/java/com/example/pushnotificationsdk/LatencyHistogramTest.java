@@ -0,0 +1,121 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * LatencyHistogram bucket layout and percentiles.
+ * The layout is shared with the backend's statsController (SUB_BUCKETS = 16, LATENCY_BUCKET_COUNT = 336).
+ */
+public class LatencyHistogramTest {
+
+    private static final long MAX_VALUE = (1L << 24) - 1;
+
+    @Test
+    public void bucketCount_matchesBackend() {
+        assertEquals(336, LatencyHistogram.BUCKET_COUNT);
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(MAX_VALUE));
+    }
+
+    @Test
+    public void smallValues_haveExactBuckets() {
+        for (int value = 0; value < 32; value++) {
+            assertEquals(value, LatencyHistogram.bucketIndex(value));
+            assertEquals(value, LatencyHistogram.bucketValue(value));
+        }
+    }
+
+    @Test
+    public void bucketValues_matchBackend() {
+        // latencyBucketValue() in statsController.js
+        assertEquals(33, LatencyHistogram.bucketValue(32));
+        assertEquals(35, LatencyHistogram.bucketValue(33));
+        assertEquals(656, LatencyHistogram.bucketValue(100));
+        assertEquals(50176, LatencyHistogram.bucketValue(200));
+        assertEquals(16515072, LatencyHistogram.bucketValue(335));
+    }
+
+    @Test
+    public void bucketIndex_isMonotonicAndContiguous() {
+        int previous = 0;
+        for (long value = 0; value <= MAX_VALUE; value += value < 4096 ? 1 : 97) {
+            int bucket = LatencyHistogram.bucketIndex(value);
+            assertTrue("value " + value, bucket == previous || bucket == previous + 1);
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void bucketValue_fallsInItsOwnBucket() {
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKET_COUNT; bucket++) {
+            assertEquals(bucket, LatencyHistogram.bucketIndex(LatencyHistogram.bucketValue(bucket)));
+        }
+    }
+
+    @Test
+    public void bucketValue_isWithinSixPercent() {
+        for (long value = 1; value <= MAX_VALUE; value = value * 3 / 2 + 1) {
+            long reported = LatencyHistogram.bucketValue(LatencyHistogram.bucketIndex(value));
+            assertTrue("value " + value + " reported as " + reported,
+                    Math.abs(reported - value) <= value / 16.0);
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(100, histogram.getMaxValue());
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(10, histogram.getValueAtPercentile(10));
+        assertEquals(50, histogram.getValueAtPercentile(50), 50 / 16.0);
+        assertEquals(99, histogram.getValueAtPercentile(99), 99 / 16.0);
+        // Never reported above the largest value actually recorded
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void percentile_ofEmptyHistogram_isZero() {
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void record_clampsOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(MAX_VALUE, histogram.getMaxValue());
+        assertEquals(LatencyHistogram.bucketValue(LatencyHistogram.BUCKET_COUNT - 1), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void addAndSparseForm() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.add(5, 3);
+        histogram.add(100, 2);
+        histogram.add(-1, 10);
+        histogram.add(LatencyHistogram.BUCKET_COUNT, 10);
+        histogram.add(7, 0);
+
+        assertEquals(5, histogram.getTotalCount());
+        assertEquals(LatencyHistogram.bucketValue(100), histogram.getMaxValue());
+        List<long[]> sparse = histogram.toSparse();
+        assertEquals(2, sparse.size());
+        assertArrayEquals(new long[] {5, 3}, sparse.get(0));
+        assertArrayEquals(new long[] {100, 2}, sparse.get(1));
+
+        histogram.clear();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getMaxValue());
+        assertTrue(histogram.toSparse().isEmpty());
+    }
+}
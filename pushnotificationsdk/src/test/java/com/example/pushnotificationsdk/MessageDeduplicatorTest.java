@@ -0,0 +1,84 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+public class MessageDeduplicatorTest {
+
+    private Context context;
+    private MessageDeduplicator deduplicator;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        deduplicator = new MessageDeduplicator(context);
+    }
+
+    @Test
+    public void redelivery_isDuplicate() {
+        assertTrue(deduplicator.markIfNew("msg-1", "campaign-1", null));
+        assertFalse(deduplicator.markIfNew("msg-1", "campaign-1", null));
+    }
+
+    @Test
+    public void anyMatchingKey_isDuplicate() {
+        assertTrue(deduplicator.markIfNew("msg-1", "campaign-1"));
+        // Same campaign delivered again through the app's topic, under a new message ID
+        assertFalse(deduplicator.markIfNew("msg-2", "campaign-1"));
+        // The new message ID was recorded as well
+        assertFalse(deduplicator.markIfNew("msg-2", null));
+    }
+
+    @Test
+    public void nullKeys_areIgnored() {
+        assertTrue(deduplicator.markIfNew(null, null));
+        assertTrue(deduplicator.markIfNew(null, null));
+    }
+
+    @Test
+    public void full_evictsLeastRecentlySeen() {
+        deduplicator.markIfNew("oldest");
+        for (int i = 0; i < MessageDeduplicator.CAPACITY; i++) {
+            assertTrue(deduplicator.markIfNew("key-" + i));
+        }
+
+        assertTrue(deduplicator.markIfNew("oldest"));
+        assertFalse(deduplicator.markIfNew("key-" + (MessageDeduplicator.CAPACITY - 1)));
+    }
+
+    @Test
+    public void duplicate_staysInIndex() {
+        deduplicator.markIfNew("msg-hot", "campaign-hot");
+        int half = MessageDeduplicator.CAPACITY / 2;
+        for (int i = 0; i < half; i++) {
+            deduplicator.markIfNew("early-" + i);
+        }
+        // Redelivered - its keys move to the front, ahead of everything recorded since
+        assertFalse(deduplicator.markIfNew("msg-hot", "campaign-hot"));
+        for (int i = 0; i < half; i++) {
+            deduplicator.markIfNew("late-" + i);
+        }
+
+        assertFalse(deduplicator.markIfNew("msg-hot"));
+        assertFalse(deduplicator.markIfNew("campaign-hot"));
+        assertTrue(deduplicator.markIfNew("early-0"));
+    }
+
+    @Test
+    public void seenKeys_survive_processRestart() {
+        deduplicator.markIfNew("msg-1", "campaign-1");
+
+        MessageDeduplicator restarted = new MessageDeduplicator(context);
+
+        assertFalse(restarted.markIfNew("msg-9", "campaign-1"));
+        assertTrue(restarted.markIfNew("msg-10"));
+    }
+}
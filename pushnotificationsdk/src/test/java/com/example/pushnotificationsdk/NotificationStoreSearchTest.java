@@ -0,0 +1,184 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * NotificationStore.search - matching, prefix matching and ranking over the term index
+ */
+@RunWith(RobolectricTestRunner.class)
+public class NotificationStoreSearchTest {
+
+    private NotificationStore store;
+
+    @Before
+    public void setUp() {
+        store = new NotificationStore(RuntimeEnvironment.getApplication());
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void everyTermMustMatch() {
+        insert("1", "Summer sale", "Everything must go", "2024-03-10T10:00:00.000Z");
+        insert("2", "New arrivals", "Summer shoes are in", "2024-03-11T10:00:00.000Z");
+
+        assertEquals(Arrays.asList("1", "2"), ids(store.search("summer", 0, 10)));
+        assertEquals(Collections.singletonList("2"), ids(store.search("summer shoes", 0, 10)));
+        assertTrue(store.search("summer winter", 0, 10).isEmpty());
+    }
+
+    @Test
+    public void lastTermMatchesAsPrefix() {
+        insert("1", "Coupon inside", null, "2024-03-10T10:00:00.000Z");
+        insert("2", "Two coupons for you", null, "2024-03-11T10:00:00.000Z");
+        insert("3", "A couple of updates", null, "2024-03-12T10:00:00.000Z");
+
+        assertEquals(setOf("1", "2", "3"), idSet(store.search("coup", 0, 10)));
+        assertEquals(setOf("1", "2"), idSet(store.search("coupo", 0, 10)));
+        assertEquals(setOf("1", "2"), idSet(store.search("coupon", 0, 10)));
+        assertTrue(store.search("coupone", 0, 10).isEmpty());
+    }
+
+    @Test
+    public void onlyLastTermMatchesAsPrefix() {
+        insert("1", "Coupon code inside", null, "2024-03-10T10:00:00.000Z");
+        insert("2", "Coupons code inside", null, "2024-03-11T10:00:00.000Z");
+
+        assertEquals(Collections.singletonList("1"), ids(store.search("coupon co", 0, 10)));
+    }
+
+    @Test
+    public void ignoresCaseAndAccents() {
+        insert("1", "Café reopening", "Crème brûlée on the house", "2024-03-10T10:00:00.000Z");
+        insert("2", "CAFE MENU", null, "2024-03-11T10:00:00.000Z");
+
+        assertEquals(setOf("1", "2"), idSet(store.search("cafe", 0, 10)));
+        assertEquals(setOf("1", "2"), idSet(store.search("CAFÉ", 0, 10)));
+        assertEquals(Collections.singletonList("1"), ids(store.search("creme BRULEE", 0, 10)));
+    }
+
+    @Test
+    public void titleMatchesRankAboveBodyMatches() {
+        insert("title", "Flash sale", "Ends tonight", "2024-03-10T10:00:00.000Z");
+        insert("body", "New arrivals", "Plus a flash sale on shoes", "2024-03-11T10:00:00.000Z");
+
+        // The body match is newer, but the title match scores higher
+        assertEquals(Arrays.asList("title", "body"), ids(store.search("sale", 0, 10)));
+    }
+
+    @Test
+    public void repeatedTermsRankHigher() {
+        insert("once", "Update", "Sale starts now", "2024-03-11T10:00:00.000Z");
+        insert("thrice", "Update", "Sale, sale, sale - everything on sale", "2024-03-10T10:00:00.000Z");
+
+        assertEquals(Arrays.asList("thrice", "once"), ids(store.search("sale", 0, 10)));
+    }
+
+    @Test
+    public void rarerTermsWeighMore() {
+        // Both match "sale" and "shoes", once in the title and once in the body. "shoes" is rare and
+        // "sale" is in every entry, so the entry with "shoes" in its title ranks first.
+        insert("shoes-title", "Shoes", "Sale", "2024-03-10T10:00:00.000Z");
+        insert("sale-title", "Sale", "Shoes", "2024-03-11T10:00:00.000Z");
+        for (int i = 0; i < 20; i++) {
+            insert("filler-" + i, "Sale", "Weekly sale", "2024-03-01T10:" + String.format("%02d", i) + ":00.000Z");
+        }
+
+        assertEquals(Arrays.asList("shoes-title", "sale-title"), ids(store.search("sale shoes", 0, 10)));
+    }
+
+    @Test
+    public void tiesAreNewestFirst() {
+        insert("old", "Weekly digest", null, "2024-03-01T10:00:00.000Z");
+        insert("new", "Weekly digest", null, "2024-03-08T10:00:00.000Z");
+        insert("mid", "Weekly digest", null, "2024-03-04T10:00:00.000Z");
+
+        assertEquals(Arrays.asList("new", "mid", "old"), ids(store.search("weekly", 0, 10)));
+    }
+
+    @Test
+    public void pagesWithOffsetAndLimit() {
+        for (int i = 0; i < 5; i++) {
+            insert("n" + i, "Reminder " + i, null, "2024-03-0" + (i + 1) + "T10:00:00.000Z");
+        }
+
+        List<String> all = new ArrayList<>();
+        all.addAll(ids(store.search("reminder", 0, 2)));
+        all.addAll(ids(store.search("reminder", 2, 2)));
+        all.addAll(ids(store.search("reminder", 4, 2)));
+
+        assertEquals(Arrays.asList("n4", "n3", "n2", "n1", "n0"), all);
+    }
+
+    @Test
+    public void deletedEntriesAreNotFound() {
+        NotificationLog log = insert("1", "Flash sale", null, "2024-03-10T10:00:00.000Z");
+        insert("2", "Flash news", null, "2024-03-11T10:00:00.000Z");
+
+        store.delete(log, true);
+
+        assertEquals(Collections.singletonList("2"), ids(store.search("flash", 0, 10)));
+    }
+
+    @Test
+    public void emptyQuery_findsNothing() {
+        insert("1", "Flash sale", null, "2024-03-10T10:00:00.000Z");
+
+        assertTrue(store.search("", 0, 10).isEmpty());
+        assertTrue(store.search(" ?! ", 0, 10).isEmpty());
+    }
+
+    @Test
+    public void returnsWholeEntries() {
+        store.insertIfAbsent(new NotificationLog("1", "Flash sale", "Ends tonight", "promotion",
+                "2024-03-10T10:00:00.000Z", "campaign-1"));
+
+        NotificationLog found = store.search("tonight", 0, 10).get(0);
+
+        assertEquals("1", found.getId());
+        assertEquals("Flash sale", found.getTitle());
+        assertEquals("Ends tonight", found.getBody());
+        assertEquals("promotion", found.getType());
+        assertEquals("2024-03-10T10:00:00.000Z", found.getSentAt());
+        assertEquals("campaign-1", found.getCampaignId());
+    }
+
+    private NotificationLog insert(String id, String title, String body, String sentAt) {
+        NotificationLog log = new NotificationLog(id, title, body, "general", sentAt);
+        assertTrue(store.insertIfAbsent(log));
+        return log;
+    }
+
+    private static List<String> ids(List<NotificationLog> logs) {
+        List<String> ids = new ArrayList<>();
+        for (NotificationLog log : logs) {
+            ids.add(log.getId());
+        }
+        return ids;
+    }
+
+    private static Set<String> setOf(String... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+
+    private static Set<String> idSet(List<NotificationLog> logs) {
+        return new HashSet<>(ids(logs));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.pushnotificationsdk;
+
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * ProfilePatchRequest.diff, checked on the JSON body that is actually sent
+ */
+public class ProfilePatchRequestTest {
+
+    private static final String TOKEN = "fcm-token";
+
+    private final UserInfo acknowledged =
+            new UserInfo("u1", "female", 30, Arrays.asList("sports", "music"), 32.0853, 34.7818);
+
+    @Test
+    public void unchangedProfile_noPatch() {
+        UserInfo same = new UserInfo("u1", "female", 30, Arrays.asList("sports", "music"), 32.0853, 34.7818);
+
+        assertNull(ProfilePatchRequest.diff(TOKEN, acknowledged, same));
+    }
+
+    @Test
+    public void interestOrder_isNotAChange() {
+        UserInfo reordered = new UserInfo("u1", "female", 30, Arrays.asList("music", "sports", "music"), 32.0853, 34.7818);
+
+        assertNull(ProfilePatchRequest.diff(TOKEN, acknowledged, reordered));
+    }
+
+    @Test
+    public void onlyChangedFieldsAreSent() {
+        UserInfo desired = new UserInfo("u1", "female", 31, Arrays.asList("sports", "music"), 32.0853, 34.7818);
+
+        JsonObject body = toJson(ProfilePatchRequest.diff(TOKEN, acknowledged, desired));
+
+        assertEquals(2, body.size());
+        assertEquals(TOKEN, body.get("token").getAsString());
+        assertEquals(31, body.get("age").getAsInt());
+    }
+
+    @Test
+    public void everyScalarField() {
+        UserInfo desired = new UserInfo("u2", "male", 40, Arrays.asList("sports", "music"), 31.7683, 35.2137);
+
+        JsonObject body = toJson(ProfilePatchRequest.diff(TOKEN, acknowledged, desired));
+
+        assertEquals("u2", body.get("userId").getAsString());
+        assertEquals("male", body.get("gender").getAsString());
+        assertEquals(40, body.get("age").getAsInt());
+        assertEquals(31.7683, body.get("lat").getAsDouble(), 0);
+        assertEquals(35.2137, body.get("lng").getAsDouble(), 0);
+        assertFalse(body.has("addInterests"));
+        assertFalse(body.has("removeInterests"));
+    }
+
+    @Test
+    public void locationMovedOnOneAxis_sendsOnlyThatAxis() {
+        UserInfo desired = new UserInfo("u1", "female", 30, Arrays.asList("sports", "music"), 32.0853, 34.8);
+
+        JsonObject body = toJson(ProfilePatchRequest.diff(TOKEN, acknowledged, desired));
+
+        assertFalse(body.has("lat"));
+        assertEquals(34.8, body.get("lng").getAsDouble(), 0);
+    }
+
+    @Test
+    public void interests_areSentAsAddedAndRemoved() {
+        UserInfo desired = new UserInfo("u1", "female", 30, Arrays.asList("music", "travel", "food"), 32.0853, 34.7818);
+
+        ProfilePatchRequest patch = ProfilePatchRequest.diff(TOKEN, acknowledged, desired);
+
+        assertEquals(Arrays.asList("travel", "food"), patch.getAddInterests());
+        assertEquals(Collections.singletonList("sports"), patch.getRemoveInterests());
+        JsonObject body = toJson(patch);
+        assertEquals(3, body.size());
+    }
+
+    @Test
+    public void nullInterests_areTreatedAsEmpty() {
+        UserInfo withoutInterests = new UserInfo("u1", "female", 30, null, 32.0853, 34.7818);
+
+        ProfilePatchRequest patch = ProfilePatchRequest.diff(TOKEN, acknowledged, withoutInterests);
+        assertNull(patch.getAddInterests());
+        assertEquals(Arrays.asList("sports", "music"), patch.getRemoveInterests());
+
+        patch = ProfilePatchRequest.diff(TOKEN, withoutInterests, acknowledged);
+        assertEquals(Arrays.asList("sports", "music"), patch.getAddInterests());
+        assertNull(patch.getRemoveInterests());
+    }
+
+    private static JsonObject toJson(ProfilePatchRequest patch) {
+        assertNotNull(patch);
+        return JsonCodecs.gson().toJsonTree(patch).getAsJsonObject();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.pushnotificationsdk;
+
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * What a fresh process knows about the last registration - the token-rotation path reads it
+ * when the app has not set a user yet
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ProfileStoreTest {
+
+    private final UserInfo user = new UserInfo("u1", "female", 30, Arrays.asList("sports", "music"), 32.0853, 34.7818);
+
+    private Context context;
+    private ProfileStore store;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        store = new ProfileStore(context);
+    }
+
+    @Test
+    public void neverRegistered() {
+        assertNull(store.getRegistered());
+        assertFalse(store.isRegisteredWithOtherToken("token-1"));
+    }
+
+    @Test
+    public void registeredProfile_survivesProcessRestart() {
+        store.setRegistered("token-1", user);
+
+        UserInfo registered = new ProfileStore(context).getRegistered();
+
+        assertEquals("u1", registered.getUserId());
+        assertEquals("female", registered.getGender());
+        assertEquals(30, registered.getAge());
+        assertEquals(Arrays.asList("sports", "music"), registered.getInterests());
+        assertEquals(32.0853, registered.getLat(), 0);
+        assertEquals(34.7818, registered.getLng(), 0);
+    }
+
+    @Test
+    public void tokenRotatedInAnotherProcess_needsReRegistration() {
+        store.setRegistered("token-1", user);
+
+        ProfileStore restarted = new ProfileStore(context);
+
+        assertFalse(restarted.isRegisteredWithOtherToken("token-1"));
+        assertTrue(restarted.isRegisteredWithOtherToken("token-2"));
+
+        // Re-registered under the new token
+        restarted.setRegistered("token-2", restarted.getRegistered());
+        assertFalse(restarted.isRegisteredWithOtherToken("token-2"));
+    }
+
+    @Test
+    public void forgettingAcknowledgedProfile_keepsRegistration() {
+        store.acknowledge("token-1", user, 3);
+        store.setRegistered("token-1", user);
+
+        store.clear();
+
+        assertNull(store.getAcknowledged("token-1"));
+        assertEquals(0, store.getVersion());
+        assertNotNull(store.getRegistered());
+    }
+
+    @Test
+    public void unregistered_isNotReRegistered() {
+        store.setRegistered("token-1", user);
+
+        store.clearRegistered();
+
+        assertNull(store.getRegistered());
+        assertFalse(store.isRegisteredWithOtherToken("token-2"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RetryBudgetTest {
+
+    @Test
+    public void startsFull_thenRunsOut() {
+        RetryBudget budget = new RetryBudget(0.25, 2);
+
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    public void requestsEarnRetries() {
+        RetryBudget budget = new RetryBudget(0.25, 2);
+        drain(budget);
+
+        for (int i = 0; i < 3; i++) {
+            budget.onRequest();
+        }
+        assertFalse(budget.tryAcquire());
+
+        budget.onRequest();
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    public void neverHoldsMoreThanMaxTokens() {
+        RetryBudget budget = new RetryBudget(0.25, 2);
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+        }
+
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    private static void drain(RetryBudget budget) {
+        while (budget.tryAcquire()) {
+            // Spend everything the budget starts with
+        }
+    }
+}
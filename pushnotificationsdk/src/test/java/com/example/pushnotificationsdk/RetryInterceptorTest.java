@@ -0,0 +1,96 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.http.PUT;
+
+import static org.junit.Assert.*;
+
+/**
+ * Which layer retries what - in-call retries for the app's calls, none for outbox writes
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RetryInterceptorTest {
+
+    interface WriteService {
+        @PUT("/interests")
+        Call<Void> direct();
+
+        @Queued
+        @PUT("/location")
+        Call<Void> queued();
+    }
+
+    private MockWebServer server;
+    private WriteService service;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        TransportConfig config = new TransportConfig.Builder()
+                .setRetryPolicy((attempt, statusCode, retryAfterMillis) -> attempt < 3 ? 0 : RetryPolicy.NO_RETRY)
+                .build();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new RetryInterceptor(config))
+                .build();
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .build()
+                .create(WriteService.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void directCall_isRetriedInCall() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse());
+
+        assertTrue(service.direct().execute().isSuccessful());
+
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void queuedWrite_isSentOnce() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse());
+
+        // The outbox sees the 503 and schedules its own retry
+        assertEquals(503, service.queued().execute().code());
+
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void queuedWrite_stillOpensTheCircuit() throws IOException {
+        for (int i = 0; i < TransportConfig.defaults().getCircuitFailureThreshold(); i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+            assertEquals(503, service.queued().execute().code());
+        }
+
+        try {
+            service.queued().execute();
+            fail("Expected the circuit to be open");
+        } catch (CircuitOpenException e) {
+            assertTrue(e.getEndpoint().contains("queued"));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cached reads the way CachedRead makes them - from the cache first, then revalidated
+ */
+public class RevalidateInterceptorTest {
+
+    private static final String CACHE_ONLY = "only-if-cached, max-stale=604800";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient.Builder()
+                .cache(new Cache(folder.newFolder("http"), 1024 * 1024))
+                .addNetworkInterceptor(new RevalidateInterceptor())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void unlabelledResponse_isReadBackFromCache() throws IOException {
+        server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("history"));
+
+        assertEquals("history", get(null).body().string());
+
+        try (Response cached = get(CACHE_ONLY)) {
+            assertEquals(200, cached.code());
+            assertNull(cached.networkResponse());
+            assertEquals("history", cached.body().string());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void backendLabel_isReadBackFromCache() throws IOException {
+        // revalidateMiddleware.js
+        server.enqueue(new MockResponse()
+                .setHeader("Cache-Control", RevalidateInterceptor.CACHE_CONTROL)
+                .setHeader("ETag", "\"v1\"")
+                .setBody("history"));
+
+        get(null).close();
+
+        try (Response cached = get(CACHE_ONLY)) {
+            assertEquals(200, cached.code());
+            assertEquals("history", cached.body().string());
+        }
+    }
+
+    @Test
+    public void nothingCached_isGatewayTimeout() throws IOException {
+        try (Response cached = get(CACHE_ONLY)) {
+            assertEquals(504, cached.code());
+        }
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void normalRequest_revalidatesWithETag() throws IOException, InterruptedException {
+        server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("history"));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        get(null).close();
+
+        try (Response revalidated = get(null)) {
+            assertEquals(200, revalidated.code());
+            assertEquals(304, revalidated.networkResponse().code());
+            assertEquals("history", revalidated.body().string());
+        }
+        server.takeRequest();
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+    }
+
+    private Response get(String cacheControl) throws IOException {
+        Request.Builder request = new Request.Builder().url(server.url("/notifications/history/token"));
+        if (cacheControl != null) {
+            request.header("Cache-Control", cacheControl);
+        }
+        return client.newCall(request.build()).execute();
+    }
+}
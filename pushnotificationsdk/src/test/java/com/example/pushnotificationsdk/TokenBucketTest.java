@@ -0,0 +1,59 @@
+package com.example.pushnotificationsdk;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketTest {
+
+    private static final long REFILL_INTERVAL = 1000;
+
+    @Test
+    public void allowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, REFILL_INTERVAL, 0);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+    }
+
+    @Test
+    public void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, REFILL_INTERVAL, 0);
+        drain(bucket, 0);
+
+        assertFalse(bucket.tryAcquire(REFILL_INTERVAL / 2));
+        // Partial refills add up
+        assertTrue(bucket.tryAcquire(REFILL_INTERVAL));
+        assertFalse(bucket.tryAcquire(REFILL_INTERVAL));
+    }
+
+    @Test
+    public void neverRefillsPastCapacity() {
+        TokenBucket bucket = new TokenBucket(2, REFILL_INTERVAL, 0);
+        drain(bucket, 0);
+
+        long later = 100 * REFILL_INTERVAL;
+        assertTrue(bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    public void clockGoingBackwards_doesNotRefill() {
+        TokenBucket bucket = new TokenBucket(1, REFILL_INTERVAL, 5 * REFILL_INTERVAL);
+        drain(bucket, 5 * REFILL_INTERVAL);
+
+        assertFalse(bucket.tryAcquire(0));
+        // The refill is measured from the latest time seen, not from the earlier one
+        assertFalse(bucket.tryAcquire(5 * REFILL_INTERVAL + REFILL_INTERVAL / 2));
+        assertTrue(bucket.tryAcquire(6 * REFILL_INTERVAL));
+    }
+
+    private static void drain(TokenBucket bucket, long now) {
+        while (bucket.tryAcquire(now)) {
+            // Spend the initial burst
+        }
+    }
+}
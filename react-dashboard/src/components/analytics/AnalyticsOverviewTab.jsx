@@ -100,17 +100,25 @@ function AnalyticsOverviewTab({ appId }) {
   // Calculate delivery rate based on real data
   const calculateDeliveryRate = () => {
     if (!data?.total || data.total === 0) return 0;
-    // Assuming 95% delivery rate as we don't track delivery failures yet
+    // Receipts reported by the SDK - fall back to an estimate until devices report them
+    if (data.receipts?.received > 0) {
+      return Math.min((data.receipts.received / data.total) * 100, 100);
+    }
     return 95.0;
   };
 
   // Calculate engagement metrics
   const calculateEngagementMetrics = () => {
     const totalNotifications = data?.total || 0;
-    // These would come from actual tracking in a real implementation
+    const displayed = data?.receipts?.displayed || 0;
+    // Click tracking would come from actual tracking in a real implementation
     return {
       openRate:
-        totalNotifications > 0 ? Math.min(25 + Math.random() * 10, 35) : 0,
+        displayed > 0
+          ? Math.min((data.receipts.opened / displayed) * 100, 100)
+          : totalNotifications > 0
+          ? Math.min(25 + Math.random() * 10, 35)
+          : 0,
       clickRate:
         totalNotifications > 0 ? Math.min(3 + Math.random() * 5, 8) : 0,
     };
@@ -133,6 +141,16 @@ function AnalyticsOverviewTab({ appId }) {
     hourlyDistribution: data?.hourlyDistribution || [],
     ageDistribution: data?.ageDistribution || [],
     monthlyStats: data?.monthlyStats || [],
+    latency: [
+      { label: "Delivery", stats: data?.deliveryLatency },
+      { label: "Display", stats: data?.displayLatency },
+    ],
+  };
+
+  // Percentiles are measured on devices and reported in milliseconds
+  const formatLatency = (ms) => {
+    if (ms === null || ms === undefined) return "—";
+    return ms >= 1000 ? `${(ms / 1000).toFixed(1)}s` : `${ms}ms`;
   };
 
   return (
@@ -218,6 +236,49 @@ function AnalyticsOverviewTab({ appId }) {
         ))}
       </div>
 
+      {/* Latency Percentiles */}
+      <motion.div
+        initial={{ opacity: 0, y: 20 }}
+        animate={{ opacity: 1, y: 0 }}
+        transition={{ delay: 0.15 }}
+        className="card"
+      >
+        <div className="card-header">
+          <div className="flex items-center gap-2">
+            <Clock className="w-5 h-5 text-primary-600" />
+            <h3 className="text-lg font-semibold text-gray-900">
+              Latency (last 7 days)
+            </h3>
+          </div>
+        </div>
+        <div className="card-body">
+          <div className="grid grid-cols-1 md:grid-cols-2 gap-6">
+            {enhancedData.latency.map(({ label, stats }) => (
+              <div key={label}>
+                <div className="flex items-center justify-between mb-3">
+                  <span className="text-sm font-medium text-gray-700">
+                    {label}
+                  </span>
+                  <span className="text-xs text-gray-500">
+                    {(stats?.count || 0).toLocaleString()} samples
+                  </span>
+                </div>
+                <div className="grid grid-cols-3 gap-3">
+                  {["p50", "p95", "p99"].map((p) => (
+                    <div key={p} className="p-3 rounded-xl bg-gray-50">
+                      <p className="text-xs text-gray-500 uppercase">{p}</p>
+                      <p className="text-xl font-bold text-gray-900">
+                        {formatLatency(stats?.[p])}
+                      </p>
+                    </div>
+                  ))}
+                </div>
+              </div>
+            ))}
+          </div>
+        </div>
+      </motion.div>
+
       {/* Charts Grid */}
       <div className="grid grid-cols-1 lg:grid-cols-2 gap-6">
         {/* Notifications Trend */}